@@ -0,0 +1,13 @@
+package AST;
+
+//Where a method call goes, worked out once by the Interpreter's link step so that running the call doesn't search the
+//program. The method a call without an object runs depends on the object it is made from, so that one is kept for the
+//class of the last such object.
+public class CallTarget {
+    public MethodDeclarationNode named; //The last method in the program with the name called, or null if there is none
+    public boolean onClass; //The object name is a class and named is shared
+    public boolean onMember; //The object name is a member of some class
+    public int objectSlot = -1; //Frame slot of the object name when it is a variable of the calling method, or -1
+    public ClassNode selfClass; //The class the last call without an object was made in, or null before there was one
+    public MethodDeclarationNode selfMethod; //The method of that name in selfClass, or null if it has none
+}
@@ -6,6 +6,8 @@ import java.util.List;
 public class ClassNode implements Node {
     public String name;
     public List<String> interfaces = new ArrayList<>();
+    public int nameId = -1; //Tran.SymbolTable ids of name and interfaces
+    public List<Integer> interfaceIds = new ArrayList<>();
 
     public List<ConstructorNode> constructors = new ArrayList<>();
     public List<MethodDeclarationNode> methods = new ArrayList<>();
@@ -7,6 +7,7 @@ public class ConstructorNode implements Node {
     public List<VariableDeclarationNode> parameters = new ArrayList<>();
     public List<VariableDeclarationNode> locals = new ArrayList<>();
     public List<StatementNode> statements = new ArrayList<>();
+    public FrameLayout frame; //Set by the Interpreter before the program runs
 
     @Override
     public String toString() {
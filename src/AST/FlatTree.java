@@ -0,0 +1,260 @@
+package AST;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+//The same tree as a TranNode packed into one int array, for programs big enough that the node objects, their lists and
+//Optionals take up most of the heap. A node is the index of its kind in the array, followed by its fields, each one int.
+//A field is a node, a list, a Tran.SymbolTable id or a small value, and NONE where the TranNode has nothing. A list is
+//its length followed by its elements. String literals are kept in a table on the side. The layout of each kind is
+//given next to it below. Nothing is allocated walking the tree, as nodes are only ever ints.
+public class FlatTree {
+
+    public static final int NONE = -1;
+
+    //Node kinds and the fields that follow the kind
+    public static final int TOP = 0;                //interfaces, classes
+    public static final int INTERFACE = 1;          //name, method headers
+    public static final int METHOD_HEADER = 2;      //name, parameters, returns
+    public static final int CLASS = 3;              //name, interface name ids, constructors, methods, members
+    public static final int CONSTRUCTOR = 4;        //NONE, parameters, NONE, locals, statements
+    public static final int METHOD = 5;             //name, parameters, returns, locals, statements, flags
+    public static final int VARIABLE = 6;           //name, type, initializer
+    public static final int ASSIGNMENT = 7;         //target, expression
+    public static final int IF = 8;                 //condition, statements, else statements
+    public static final int LOOP = 9;               //condition, statements, variable
+    public static final int CALL = 10;              //method name, object name, parameters, return values
+    public static final int CALL_EXPRESSION = 11;   //method name, object name, parameters
+    public static final int NEW = 12;               //class name, parameters
+    public static final int MATH = 13;              //left, right, MathOpNode.MathOperations ordinal
+    public static final int COMPARE = 14;           //left, right, CompareNode.CompareOperations ordinal
+    public static final int BOOLEAN_OP = 15;        //left, right, BooleanOpNode.BooleanOperations ordinal
+    public static final int NOT = 16;               //operand
+    public static final int NUMBER = 17;            //Float.floatToRawIntBits of the value
+    public static final int STRING = 18;            //index in the string table
+    public static final int CHARACTER = 19;         //the char
+    public static final int BOOLEAN = 20;           //1 for true, 0 for false
+    public static final int VARIABLE_REFERENCE = 21; //name
+
+    //Flags of a METHOD
+    public static final int SHARED = 1;
+    public static final int PRIVATE = 2;
+
+    private static final int EMPTY_LIST = 0; //Every empty list is the one at the start of the array
+
+    private final int[] data;
+    private final String[] strings;
+    private final int root;
+
+    private FlatTree(int[] data, String[] strings, int root) {
+        this.data = data;
+        this.strings = strings;
+        this.root = root;
+    }
+
+    public static FlatTree of(TranNode top) {
+        return new Builder().build(top);
+    }
+
+    //The TOP node
+    public int root() {
+        return root;
+    }
+
+    public int kind(int node) {
+        return data[node];
+    }
+
+    //Field i of the node, counting from 0 in the order given with its kind
+    public int field(int node, int i) {
+        return data[node + 1 + i];
+    }
+
+    //The first field, which is the name of every kind that has one
+    public int name(int node) {
+        return data[node + 1];
+    }
+
+    public int left(int node) {
+        return data[node + 1];
+    }
+
+    public int right(int node) {
+        return data[node + 2];
+    }
+
+    public int op(int node) {
+        return data[node + 3];
+    }
+
+    public float number(int node) {
+        return Float.intBitsToFloat(data[node + 1]);
+    }
+
+    public String string(int node) {
+        return strings[data[node + 1]];
+    }
+
+    public char character(int node) {
+        return (char) data[node + 1];
+    }
+
+    public boolean bool(int node) {
+        return data[node + 1] != 0;
+    }
+
+    public int size(int list) {
+        return list == NONE ? 0 : data[list];
+    }
+
+    public int get(int list, int i) {
+        return data[list + 1 + i];
+    }
+
+    //What the array and string table take on a 64 bit JVM with compressed references
+    public long bytes() {
+        long bytes = 16 + 4L * data.length + 16 + 4L * strings.length;
+        for (String s : strings)
+            bytes += 24 + 16 + s.length(); //The String and its Latin-1 bytes. Other text takes twice that.
+        return bytes;
+    }
+
+    private static class Builder {
+        private int[] data = new int[1024];
+        private int size = 1; //data[0] is the empty list
+        private final List<String> strings = new ArrayList<>();
+
+        FlatTree build(TranNode top) {
+            int interfaces = list(top.Interfaces, this::interfaceNode);
+            int classes = list(top.Classes, this::classNode);
+            int root = node(TOP, interfaces, classes);
+            return new FlatTree(Arrays.copyOf(data, size), strings.toArray(new String[0]), root);
+        }
+
+        private interface Part<T> {
+            int build(T node);
+        }
+
+        private int node(int kind, int... fields) {
+            int at = reserve(1 + fields.length);
+            data[at] = kind;
+            System.arraycopy(fields, 0, data, at + 1, fields.length);
+            return at;
+        }
+
+        private int reserve(int length) {
+            if (size + length > data.length)
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + length));
+            int at = size;
+            size += length;
+            return at;
+        }
+
+        private <T> int list(List<T> nodes, Part<T> part) {
+            if (nodes == null)
+                return NONE;
+            if (nodes.isEmpty())
+                return EMPTY_LIST;
+            int[] elements = new int[nodes.size()];
+            for (int i = 0; i < elements.length; i++)
+                elements[i] = part.build(nodes.get(i));
+            int at = reserve(1 + elements.length);
+            data[at] = elements.length;
+            System.arraycopy(elements, 0, data, at + 1, elements.length);
+            return at;
+        }
+
+        private <T> int optional(Optional<T> value, Part<T> part) {
+            return value == null || value.isEmpty() ? NONE : part.build(value.get());
+        }
+
+        private int interfaceNode(InterfaceNode i) {
+            return node(INTERFACE, i.nameId, list(i.methods, this::methodHeader));
+        }
+
+        private int methodHeader(MethodHeaderNode m) {
+            return node(METHOD_HEADER, m.nameId, list(m.parameters, this::variable), list(m.returns, this::variable));
+        }
+
+        private int classNode(ClassNode c) {
+            int interfaces = list(c.interfaceIds, id -> id);
+            int constructors = list(c.constructors, this::constructor);
+            int methods = list(c.methods, this::method);
+            int members = list(c.members, member -> variable(member.declaration));
+            return node(CLASS, c.nameId, interfaces, constructors, methods, members);
+        }
+
+        private int constructor(ConstructorNode c) {
+            return node(CONSTRUCTOR, NONE, list(c.parameters, this::variable), NONE, list(c.locals, this::variable), list(c.statements, this::statement));
+        }
+
+        private int method(MethodDeclarationNode m) {
+            m.parseBody();
+            int flags = (m.isShared ? SHARED : 0) | (m.isPrivate ? PRIVATE : 0);
+            return node(METHOD, m.nameId, list(m.parameters, this::variable), list(m.returns, this::variable),
+                    list(m.locals, this::variable), list(m.statements, this::statement), flags);
+        }
+
+        private int variable(VariableDeclarationNode v) {
+            if (v == null)
+                return NONE;
+            return node(VARIABLE, v.nameId, v.typeId, optional(v.initializer, this::expression));
+        }
+
+        private int statement(StatementNode s) {
+            return switch (s) {
+                case null -> NONE;
+                case AssignmentNode a -> node(ASSIGNMENT, expression(a.target), expression(a.expression));
+                case IfNode i -> node(IF, expression(i.condition), list(i.statements, this::statement),
+                        optional(i.elseStatement, e -> list(e.statements, this::statement)));
+                case LoopNode l -> node(LOOP, expression(l.expression), list(l.statements, this::statement), optional(l.assignment, this::expression));
+                case MethodCallStatementNode m -> node(CALL, m.methodNameId, m.objectNameId,
+                        list(m.parameters, this::expression), list(m.returnValues, this::expression));
+                default -> throw new IllegalArgumentException("Unknown statement " + s.getClass().getSimpleName());
+            };
+        }
+
+        //Long chains of operators lean left, so the left side is followed in a loop rather than by recursion
+        private int expression(Node e) {
+            List<Node> spine = new ArrayList<>();
+            while (e instanceof MathOpNode || e instanceof CompareNode || e instanceof BooleanOpNode) {
+                spine.add(e);
+                e = switch (e) {
+                    case MathOpNode m -> m.left;
+                    case CompareNode c -> c.left;
+                    default -> ((BooleanOpNode) e).left;
+                };
+            }
+            int built = leaf(e);
+            for (int i = spine.size() - 1; i >= 0; i--) {
+                built = switch (spine.get(i)) {
+                    case MathOpNode m -> node(MATH, built, expression(m.right), m.op == null ? NONE : m.op.ordinal());
+                    case CompareNode c -> node(COMPARE, built, expression(c.right), c.op == null ? NONE : c.op.ordinal());
+                    case BooleanOpNode b -> node(BOOLEAN_OP, built, expression(b.right), b.op == null ? NONE : b.op.ordinal());
+                    default -> throw new IllegalStateException();
+                };
+            }
+            return built;
+        }
+
+        private int leaf(Node e) {
+            return switch (e) {
+                case null -> NONE;
+                case MethodCallExpressionNode m -> node(CALL_EXPRESSION, m.methodNameId, m.objectNameId, list(m.parameters, this::expression));
+                case NewNode n -> node(NEW, n.classNameId, list(n.parameters, this::expression));
+                case NotOpNode n -> node(NOT, expression(n.left));
+                case NumericLiteralNode n -> node(NUMBER, Float.floatToRawIntBits(n.value));
+                case StringLiteralNode s -> {
+                    strings.add(s.value);
+                    yield node(STRING, strings.size() - 1);
+                }
+                case CharLiteralNode c -> node(CHARACTER, c.value);
+                case BooleanLiteralNode b -> node(BOOLEAN, b.value ? 1 : 0);
+                case VariableReferenceNode v -> node(VARIABLE_REFERENCE, v.nameId);
+                default -> throw new IllegalArgumentException("Unknown expression " + e.getClass().getSimpleName());
+            };
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package AST;
+
+//How the Interpreter lays out the variables of a method or constructor while it runs, worked out once by its link step.
+//A frame is an array with a slot for each name among the locals, parameters and returns, and for loop variables that
+//aren't declared. Each VariableReferenceNode in the body has the slot of its name, so reading a variable is an array load.
+public class FrameLayout {
+    public int size; //Slots in a frame
+    public int[] locals; //Slot of each local, in order
+    public int[] parameters; //Slot each parameter value is put in, or -1 where there is none
+    public int[] returns; //Slot of each return
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 public class InterfaceNode implements Node {
     public String name;
+    public int nameId = -1; //Tran.SymbolTable id of name
     public List<MethodHeaderNode> methods = new ArrayList<>();
 
     @Override
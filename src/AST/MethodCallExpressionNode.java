@@ -9,7 +9,10 @@ import java.util.Optional;
 public class MethodCallExpressionNode implements ExpressionNode {
     public Optional<String> objectName;
     public String methodName;
+    public int objectNameId = -1; //Tran.SymbolTable ids, objectNameId is -1 when there is no object
+    public int methodNameId = -1;
     public List<ExpressionNode> parameters = new ArrayList<>();
+    public CallTarget target; //Set by the Interpreter before the program runs
     @Override
     public String toString() {
         return (objectName.map(s -> s + ".").orElse("")) +
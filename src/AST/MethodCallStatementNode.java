@@ -16,13 +16,19 @@ public class MethodCallStatementNode implements StatementNode {
         returnValues = new LinkedList<>();
         objectName = mce.objectName;
         methodName = mce.methodName;
+        objectNameId = mce.objectNameId;
+        methodNameId = mce.methodNameId;
         parameters = mce.parameters;
+        target = mce.target;
     }
 
     public Optional<String> objectName;
     public String methodName;
+    public int objectNameId = -1; //Tran.SymbolTable ids, objectNameId is -1 when there is no object
+    public int methodNameId = -1;
     public List<VariableReferenceNode> returnValues = new ArrayList<>();
     public List<ExpressionNode> parameters = new ArrayList<>();
+    public CallTarget target; //Set by the Interpreter before the program runs
     public String toString() {
         return
                 Node.variableReferenceListToString(returnValues) + (returnValues.isEmpty() ? "" : " = ") +
@@ -8,11 +8,25 @@ public class MethodDeclarationNode implements Node {
     public boolean isShared;
     public boolean isPrivate;
     public String name;
+    public int nameId = -1; //Tran.SymbolTable id of name
     public List<VariableDeclarationNode> parameters = new ArrayList<>();
     public List<VariableDeclarationNode> returns = new ArrayList<>();
     public List<VariableDeclarationNode> locals = new ArrayList<>();
     public List<StatementNode> statements = new ArrayList<>();
+    public FrameLayout frame; //Set by the Interpreter once the body is parsed
+    public Runnable unparsedBody; //Left by a Parser that skipped the body. Fills in locals and statements when run.
 
+    public static final String UNPARSED_BODY = "(body not parsed yet)";
+
+    //Parses the body if the Parser left it for later. Whatever reads locals or statements calls this first.
+    public void parseBody() {
+        if (unparsedBody != null) {
+            unparsedBody.run();
+            unparsedBody = null;
+        }
+    }
+
+    //A body that hasn't been parsed yet is shown as such rather than parsed, so printing never changes the tree or throws
     @Override
     public String toString() {
         return
@@ -20,7 +34,8 @@ public class MethodDeclarationNode implements Node {
                 (isPrivate ? "private " : "") +
                         name + " (" + Node.variableDeclarationListToString(parameters) + ")" +
                         (returns.isEmpty() ? "" : " : " + Node.variableDeclarationListToString(returns)) + "\n" +
+                        (unparsedBody != null ? UNPARSED_BODY :
                         locals.stream().map(Object::toString).collect(Collectors.joining("\n")) +
-                        Node.statementListToString(statements) + "\n";
+                        Node.statementListToString(statements)) + "\n";
     }
 }
@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 
 public class MethodHeaderNode {
     public String name;
+    public int nameId = -1; //Tran.SymbolTable id of name
     public List<VariableDeclarationNode> parameters = new ArrayList<>();
     public List<VariableDeclarationNode> returns = new ArrayList<>();
 
@@ -5,6 +5,7 @@ import java.util.List;
 
 public class NewNode implements Node, ExpressionNode{
     public String className;
+    public int classNameId = -1; //Tran.SymbolTable id of className
     public List<ExpressionNode> parameters = new ArrayList<>();
 
     @Override
@@ -1,11 +1,11 @@
 package AST;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public class TranNode {
-    public List<ClassNode> Classes = new LinkedList<>();
-    public List<InterfaceNode> Interfaces = new LinkedList<>();
+    public List<ClassNode> Classes = new ArrayList<>();
+    public List<InterfaceNode> Interfaces = new ArrayList<>();
 
     @Override
     public String toString() {
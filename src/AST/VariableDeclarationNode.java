@@ -5,6 +5,8 @@ import java.util.Optional;
 public class VariableDeclarationNode implements Node {
     public String type;
     public String name;
+    public int typeId = -1; //Tran.SymbolTable ids of type and name
+    public int nameId = -1;
     public Optional<ExpressionNode> initializer = Optional.empty();
 
     @Override
@@ -4,6 +4,10 @@ import java.util.Optional;
 
 public class VariableReferenceNode implements Node,ExpressionNode {
     public String name;
+    public int nameId = -1; //Tran.SymbolTable id of name
+    public int slot = -1; //Frame slot of the variable, set by the Interpreter. -1 when it isn't a variable of the method
+    public ClassNode memberOf; //The class of the method it is in, which member was worked out for
+    public int member = -1; //Offset of the member it names in objects of memberOf, or -1 when there is none
 
     @Override
     public String toString() {
@@ -0,0 +1,90 @@
+package Benchmarks;
+
+import AST.FlatTree;
+import AST.TranNode;
+import Tran.Lexer;
+import Tran.Parser;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+//Compares the heap a parsed program takes as TranNode objects with the same tree as a FlatTree. Both are measured by
+//the used heap before and after building them with everything else already in place, so the numbers include the lists,
+//Optionals, boxed ids and name strings that hang off the nodes. Also counts the nodes of each kind. Run with an optional
+//number of classes, for example: java -Xmx2g Benchmarks.AstFootprintReport 4000
+public class AstFootprintReport {
+
+    public static void main(String[] args) throws Exception {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        String source = program(classes);
+        var tokens = new Lexer(source).Lex();
+        System.out.printf("%d classes, %.1f MB of source, %d tokens%n", classes, source.length() / 1e6, tokens.size());
+
+        long before = used();
+        TranNode top = new TranNode();
+        new Parser(top, tokens).Tran();
+        long objects = used() - before;
+        tokens = null;
+
+        before = used();
+        FlatTree flat = FlatTree.of(top);
+        long arena = used() - before;
+
+        var counts = new TreeMap<String, Integer>();
+        count(top.Interfaces, counts);
+        count(top.Classes, counts);
+        int nodes = counts.values().stream().mapToInt(Integer::intValue).sum();
+        counts.forEach((name, count) -> System.out.printf("  %-26s %9d%n", name, count));
+        System.out.printf("%d nodes%n", nodes);
+        System.out.printf("TranNode  %8.1f MB  %6.1f bytes a node%n", objects / 1e6, (double) objects / nodes);
+        System.out.printf("FlatTree  %8.1f MB  %6.1f bytes a node  (%.1f MB of arrays)%n", arena / 1e6, (double) arena / nodes, flat.bytes() / 1e6);
+        System.out.printf("FlatTree is %.1f times smaller%n", (double) objects / arena);
+        System.out.println(top.Classes.size() + flat.kind(flat.root())); //Keeps both trees alive until here
+    }
+
+    private static long used() {
+        for (int i = 0; i < 4; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    //Counts by walking the object graph with reflection, so every kind of node is seen without listing them here
+    private static void count(Object node, Map<String, Integer> counts) throws IllegalAccessException {
+        if (node instanceof Iterable<?> list) {
+            for (Object o : list)
+                count(o, counts);
+            return;
+        }
+        if (node instanceof java.util.Optional<?> optional) {
+            if (optional.isPresent())
+                count(optional.get(), counts);
+            return;
+        }
+        if (!(node instanceof AST.Node))
+            return;
+        counts.merge(node.getClass().getSimpleName(), 1, Integer::sum);
+        for (var field : node.getClass().getFields())
+            if (!java.lang.reflect.Modifier.isStatic(field.getModifiers()))
+                count(field.get(node), counts);
+    }
+
+    //Classes with members, a constructor and a few methods of assignments, ifs, loops and calls
+    private static String program(int classes) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            source.append("class shape").append(i).append('\n');
+            source.append("    number side\n    string label\n");
+            source.append("    construct(number s)\n        side = s\n        label = \"shape ").append(i).append("\"\n");
+            for (int m = 0; m < 4; m++) {
+                source.append("    method").append(m).append("(number x, number y) : number result\n");
+                source.append("        number total\n");
+                source.append("        total = x * side + y / 2 - ").append(m).append('\n');
+                source.append("        if total > 100\n            result = total % 7\n        else\n            result = total\n");
+                source.append("        loop i = side.times()\n            total = total + i\n");
+                source.append("        console.write(label, total)\n");
+            }
+        }
+        return source.toString();
+    }
+}
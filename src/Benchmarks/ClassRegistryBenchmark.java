@@ -0,0 +1,74 @@
+package Benchmarks;
+
+import AST.TranNode;
+import Interpreter.ClassRegistry;
+import Interpreter.Interpreter;
+import Tran.Lexer;
+import Tran.Parser;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+//Times Interpreter.start() on generated programs of 1000 to 10000 classes, where start() makes objects of a couple of
+//hundred classes spread through the program and calls a method on each, fifty times over. Finding those classes, their constructors and
+//their methods is what grows with the size of the program; building the ClassRegistry is timed on its own as well.
+//Parsing is left out. The best of a few runs is shown, for example: java Benchmarks.ClassRegistryBenchmark 1000 10000
+public class ClassRegistryBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int USED = 200;
+    private static final int REPEATS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[]{1000, 5000, 10000};
+        for (int i = 0; i < args.length; i++)
+            sizes[i] = Integer.parseInt(args[i]);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int classes : sizes) {
+                String source = program(classes);
+                long start = Long.MAX_VALUE;
+                long registry = Long.MAX_VALUE;
+                for (int i = 0; i < ROUNDS; i++) {
+                    TranNode top = new TranNode();
+                    new Parser(top, new Lexer(source).Lex()).Tran();
+                    long begin = System.nanoTime();
+                    new ClassRegistry(top);
+                    registry = Math.min(registry, System.nanoTime() - begin);
+                    Interpreter interpreter = new Interpreter(top);
+                    begin = System.nanoTime();
+                    interpreter.start();
+                    start = Math.min(start, System.nanoTime() - begin);
+                }
+                out.printf("%6d classes   start() %9.2f ms   registry %7.2f ms%n", classes, start / 1e6, registry / 1e6);
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    //start() comes last, so it is found after every other class
+    private static String program(int classes) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            source.append("class part").append(i).append('\n');
+            source.append("    number size\n");
+            source.append("    construct(number s)\n        size = s\n");
+            source.append("    grow").append(i).append("() : number n\n        n = size * 2\n\n");
+        }
+        source.append("class main\n    shared start()\n        number total\n        number n\n        boolean more\n");
+        source.append("        total = 0\n        n = 0\n");
+        for (int u = 0; u < USED; u++)
+            source.append("        part").append(u * classes / USED).append(" p").append(u).append('\n');
+        source.append("        loop more = n < ").append(REPEATS).append('\n');
+        source.append("            n = n + 1\n");
+        for (int u = 0; u < USED; u++) {
+            int i = u * classes / USED;
+            source.append("            p").append(u).append(" = new part").append(i).append('(').append(u).append(")\n");
+            source.append("            total = total + p").append(u).append(".grow").append(i).append("()\n");
+        }
+        source.append("        console.write(total)\n");
+        return source.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package Benchmarks;
+
+import AST.TranNode;
+import Tran.CompileSession;
+import Tran.Lexer;
+import Tran.Parser;
+import Tran.SymbolTable;
+
+import java.lang.management.ManagementFactory;
+
+//Compiles many tiny scripts, first with a new Lexer and Parser for each and then through one CompileSession, and
+//reports scripts per second, bytes allocated per script and how many names SymbolTable gained, which it keeps for good.
+//Each script names a class of its own, so only the first round adds names. Run with an optional script count, for
+//example: java Benchmarks.CompileSessionBenchmark 50000
+public class CompileSessionBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    //Reads how much the current thread has allocated, where the JVM supports it
+    private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private interface Compiler {
+        TranNode compile(String script) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        String[] scripts = new String[count];
+        for (int i = 0; i < count; i++)
+            scripts[i] = script(i);
+
+        CompileSession session = new CompileSession();
+        for (int round = 0; round < ROUNDS; round++) {
+            time("fresh", scripts, script -> {
+                TranNode top = new TranNode();
+                new Parser(top, new Lexer(script).Lex()).Tran();
+                return top;
+            });
+            time("session", scripts, session::compile);
+        }
+    }
+
+    private static void time(String name, String[] scripts, Compiler compiler) throws Exception {
+        int namesBefore = SymbolTable.size();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (String script : scripts)
+            compiler.compile(script);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-8s %8.0f scripts/s %7d bytes/script %7d new names%n", name, scripts.length * 1e9 / elapsed,
+                allocated / scripts.length, SymbolTable.size() - namesBefore);
+    }
+
+    //A few lines of the kind of script that gets compiled by the thousand
+    private static String script(int i) {
+        return "class rule" + i + "\n" +
+                "    number limit\n" +
+                "    check(number value) : number over\n" +
+                "        over = 0\n" +
+                "        if value > limit\n" +
+                "            over = value - limit + " + (i % 100) + "\n";
+    }
+}
@@ -0,0 +1,78 @@
+package Benchmarks;
+
+import Tran.Lexer;
+import Tran.Utf8TextManager;
+
+import java.nio.charset.StandardCharsets;
+
+//Times the lexer on sources that are mostly comments, mostly string literals and mostly indentation, which are the
+//runs the lexer skips over in bulk. Each is lexed from a String and from UTF-8 bytes. Run with an optional size in
+//megabytes, for example: java Benchmarks.LexerScanBenchmark 8
+public class LexerScanBenchmark {
+
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int TIMED_ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        time("comments", commentHeavy(megabytes << 20));
+        time("literals", literalHeavy(megabytes << 20));
+        time("indentation", indentationHeavy(megabytes << 20));
+    }
+
+    private static void time(String name, String source) throws Exception {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            new Lexer(source).Lex();
+            new Lexer(new Utf8TextManager(bytes)).Lex();
+        }
+        long fromString = Long.MAX_VALUE;
+        long fromBytes = Long.MAX_VALUE;
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            new Lexer(source).Lex();
+            fromString = Math.min(fromString, System.nanoTime() - start);
+            start = System.nanoTime();
+            new Lexer(new Utf8TextManager(bytes)).Lex();
+            fromBytes = Math.min(fromBytes, System.nanoTime() - start);
+        }
+        System.out.printf("%-12s %6.1f MB   String %7.2f ms %7.0f MB/s   bytes %7.2f ms %7.0f MB/s%n", name,
+                bytes.length / 1e6, fromString / 1e6, bytes.length * 1e3 / fromString,
+                fromBytes / 1e6, bytes.length * 1e3 / fromBytes);
+    }
+
+    //Methods with a long comment in front of every statement
+    private static String commentHeavy(int size) {
+        StringBuilder source = new StringBuilder("class Comments\n");
+        String comment = "{ " + "This explains what the next line does and why it has to be done that way. ".repeat(6) + "}";
+        for (int i = 0; source.length() < size; i++) {
+            source.append("    method").append(i).append("()\n");
+            for (int j = 0; j < 8; j++)
+                source.append("        ").append(comment).append("\n        x = x + ").append(j).append('\n');
+        }
+        return source.toString();
+    }
+
+    //Methods that build long messages out of string literals
+    private static String literalHeavy(int size) {
+        StringBuilder source = new StringBuilder("class Literals\n");
+        String literal = "\"" + "Some text for the user to read, with a number and some punctuation: 42! ".repeat(4) + "\"";
+        for (int i = 0; source.length() < size; i++) {
+            source.append("    method").append(i).append("()\n");
+            for (int j = 0; j < 8; j++)
+                source.append("        s = s + ").append(literal).append('\n');
+        }
+        return source.toString();
+    }
+
+    //Deeply nested blocks of short statements, so most of the text is the spaces at the start of lines
+    private static String indentationHeavy(int size) {
+        StringBuilder source = new StringBuilder("class Indentation\n");
+        for (int i = 0; source.length() < size; i++) {
+            source.append("    method").append(i).append("()\n");
+            for (int depth = 2; depth < 12; depth++)
+                source.append("    ".repeat(depth)).append("if x\n");
+        }
+        return source.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package Benchmarks;
+
+import AST.ConstructorNode;
+import AST.MethodDeclarationNode;
+import AST.TranNode;
+import Tran.Lexer;
+import Tran.Parser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+//Parses generated programs three ways: eagerly, lexing the whole text before parsing (new Parser(top, lexer.Lex())),
+//pipelined, pulling tokens from the lexer as the parser needs them (new Parser(top, lexer)), and streamed, pipelined from
+//a file the lexer reads as it goes (new Lexer(path)). For each it shows how long the first method body takes to come out
+//of the parser, the best of several runs, and how long the whole parse takes. Then it finds the smallest heap each one
+//parses the program in, with -XX:+UseSerialGC, by running this class again in a JVM per try. Run with the numbers of
+//classes to generate, about 1.4 KB of source each, for example: java Benchmarks.PipelineBenchmark 2000 4000
+public class PipelineBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int SMALLEST_HEAP = 8; //In MB, where the search for the smallest heap starts
+    private static final int LARGEST_HEAP = 2048;
+    private static final int HEAP_STEP = 2; //How close the search gets, in MB
+
+    private static final String[] MODES = {"eager", "pipelined", "streamed"};
+
+    private static long firstMethod; //When the parser finished the first method body, from System.nanoTime()
+
+    //Notes when the first body comes out of the parser
+    private static final Parser.BodyCompiler firstBody = new Parser.BodyCompiler() {
+        @Override
+        public void compile(MethodDeclarationNode method) {
+            if (firstMethod == 0)
+                firstMethod = System.nanoTime();
+        }
+
+        @Override
+        public void compile(ConstructorNode constructor) {
+            if (firstMethod == 0)
+                firstMethod = System.nanoTime();
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("once")) { //One parse in a JVM of the heap being tried
+            String mode = args[1];
+            int classes = Integer.parseInt(args[2]);
+            parse(mode, mode.equals("streamed") ? null : program(classes), Path.of(classes + ".tran").toAbsolutePath());
+            return;
+        }
+        String[] sizes = args.length > 0 ? args : new String[]{"2000", "4000"};
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (String size : sizes)
+                time(out, Integer.parseInt(size));
+            for (String size : sizes)
+                heaps(out, Integer.parseInt(size));
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static void time(PrintStream out, int classes) throws Exception {
+        String source = program(classes);
+        Path file = write(classes);
+        try {
+            out.printf("%5d classes %6.1f MB", classes, Files.size(file) / 1e6);
+            for (String mode : MODES) {
+                long first = Long.MAX_VALUE;
+                long whole = Long.MAX_VALUE;
+                for (int i = 0; i < ROUNDS; i++) {
+                    long start = System.nanoTime();
+                    parse(mode, source, file);
+                    whole = Math.min(whole, System.nanoTime() - start);
+                    first = Math.min(first, firstMethod - start);
+                }
+                out.printf("   %s: first method %8.2f ms  whole parse %8.1f ms", mode, first / 1e6, whole / 1e6);
+            }
+            out.println();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void heaps(PrintStream out, int classes) throws Exception {
+        Path file = write(classes);
+        try {
+            out.printf("%5d classes  smallest -Xmx that parses it:", classes);
+            for (String mode : MODES)
+                out.printf("   %s ~%d MB", mode, smallestHeap(mode, classes, file));
+            out.println();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    //Halves the range of heap sizes until the smallest one the parse succeeds in is found, to within HEAP_STEP
+    private static int smallestHeap(String mode, int classes, Path file) throws Exception {
+        int fails = SMALLEST_HEAP;
+        int succeeds = LARGEST_HEAP;
+        if (!parsesIn(succeeds, mode, classes, file))
+            return -1;
+        while (succeeds - fails > HEAP_STEP) {
+            int heap = (fails + succeeds) / 2;
+            if (parsesIn(heap, mode, classes, file))
+                succeeds = heap;
+            else
+                fails = heap;
+        }
+        return succeeds;
+    }
+
+    private static boolean parsesIn(int megabytes, String mode, int classes, Path file) throws Exception {
+        List<String> command = new ArrayList<>(List.of(ProcessHandle.current().info().command().orElse("java"),
+                "-XX:+UseSerialGC", "-Xmx" + megabytes + "m", "-cp", System.getProperty("java.class.path"),
+                PipelineBenchmark.class.getName(), "once", mode, Integer.toString(classes)));
+        Process process = new ProcessBuilder(command).directory(file.getParent().toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        return process.waitFor() == 0;
+    }
+
+    //Parses the program in one of the MODES, from its text or, streamed, from the file
+    private static TranNode parse(String mode, String source, Path file) throws Exception {
+        firstMethod = 0;
+        TranNode top = new TranNode();
+        Parser parser = switch (mode) {
+            case "eager" -> new Parser(top, new Lexer(source).Lex());
+            case "pipelined" -> new Parser(top, new Lexer(source));
+            case "streamed" -> new Parser(top, new Lexer(file));
+            default -> throw new IllegalArgumentException(mode);
+        };
+        parser.setBodyCompiler(firstBody);
+        parser.Tran();
+        return top;
+    }
+
+    private static Path write(int classes) throws IOException {
+        Path file = Path.of(classes + ".tran").toAbsolutePath();
+        Files.writeString(file, program(classes));
+        return file;
+    }
+
+    //Classes with a few members, a constructor and methods with loops and ifs, about 1.4 KB each
+    private static String program(int classes) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            source.append("class account").append(i).append('\n');
+            source.append("    number balance\n    number limit\n    number rate\n    string owner\n    boolean frozen\n\n");
+            source.append("    construct(string name, number start)\n");
+            source.append("        owner = name\n        balance = start\n        limit = ").append(i % 500 + 100).append('\n');
+            source.append("        rate = ").append(i % 7).append(".5\n\n");
+            source.append("    deposit(number amount) : number total\n");
+            source.append("        if amount > 0\n            balance = balance + amount\n");
+            source.append("        else\n            console.write(\"refused deposit of \", amount, \" for \", owner)\n");
+            source.append("        total = balance\n\n");
+            source.append("    withdraw(number amount) : boolean done, number left\n");
+            source.append("        number fee\n        fee = amount * rate / 100\n");
+            source.append("        if balance - amount - fee >= 0 - limit\n");
+            source.append("            balance = balance - amount - fee\n            done = frozen\n");
+            source.append("        else\n            console.write(\"refused withdrawal of \", amount)\n");
+            source.append("        left = balance\n\n");
+            source.append("    interest(number months) : number earned\n");
+            source.append("        number month\n        number before\n        before = balance\n        month = 0\n");
+            source.append("        loop month < months\n");
+            source.append("            balance = balance + balance * rate / 1200\n            month = month + 1\n");
+            source.append("            if balance > limit * 100\n                console.write(owner, \" is rich\")\n");
+            source.append("        earned = balance - before\n\n");
+            source.append("    report()\n");
+            source.append("        console.write(\"account ").append(i).append(" of \", owner, \": \", balance)\n");
+            source.append("        console.write(\"limit \", limit, \" rate \", rate, \" frozen \", frozen)\n\n");
+            source.append("    shared open").append(i).append("(string name) : number opened\n");
+            source.append("        account").append(i).append(" a\n");
+            source.append("        a = new account").append(i).append("(name, ").append(i * 10).append(")\n");
+            source.append("        opened = ").append(i).append("\n\n");
+        }
+        return source.toString();
+    }
+}
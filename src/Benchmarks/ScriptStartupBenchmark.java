@@ -0,0 +1,92 @@
+package Benchmarks;
+
+import AST.TranNode;
+import Interpreter.CompiledProgram;
+import Interpreter.Interpreter;
+import Tran.Lexer;
+import Tran.Parser;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+//Times running a script once, from its text to the end of start(), through Lexer, Parser and Interpreter and through
+//CompiledProgram. The scripts are a short one and generated ones with many classes, of which start() only uses a few, as
+//in a script that pulls in a library. The first run in the JVM is shown apart from the best of the later ones. Both front
+//ends share the lexer and parser, so whichever runs second starts warmer, and for a fair first run give the one to time
+//after the number of classes for the largest script, for example: java Benchmarks.ScriptStartupBenchmark 5000 compiled
+public class ScriptStartupBenchmark {
+
+    private static final int ROUNDS = 50;
+
+    private interface Run {
+        void run(String source) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        String only = args.length > 1 ? args[1] : null;
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            time(out, only, "short", script(1));
+            time(out, only, classes / 10 + " classes", script(classes / 10));
+            time(out, only, classes + " classes", script(classes));
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static void time(PrintStream out, String only, String name, String source) throws Exception {
+        Run pipeline = text -> {
+            TranNode top = new TranNode();
+            new Parser(top, new Lexer(text).Lex()).Tran();
+            new Interpreter(top).start();
+        };
+        Run compiled = text -> CompiledProgram.compile(text).start();
+        out.printf("%-14s %7.1f KB", name, source.length() / 1e3);
+        if (only == null || only.equals("pipeline"))
+            print(out, "pipeline", times(pipeline, source));
+        if (only == null || only.equals("compiled"))
+            print(out, "compiled", times(compiled, source));
+        out.println();
+    }
+
+    private static void print(PrintStream out, String name, long[] times) {
+        out.printf("   %s: first run %8.2f ms  best %8.2f ms", name, times[0] / 1e6, times[1] / 1e6);
+    }
+
+    //The first time and the best of the rest
+    private static long[] times(Run run, String source) throws Exception {
+        long first = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i <= ROUNDS; i++) {
+            long start = System.nanoTime();
+            run.run(source);
+            long time = System.nanoTime() - start;
+            if (i == 0)
+                first = time;
+            else
+                best = Math.min(best, time);
+        }
+        return new long[]{first, best};
+    }
+
+    //Classes that each keep a total and work on it, with a start() that uses the first of them
+    private static String script(int classes) {
+        StringBuilder source = new StringBuilder();
+        source.append("class main\n    shared start()\n        worker0 w\n        number result\n");
+        source.append("        w = new worker0()\n        w.step()\n        w.step()\n        result = w.total()\n");
+        source.append("        console.write(\"total \", result)\n\n");
+        for (int i = 0; i < classes; i++) {
+            source.append("class worker").append(i).append('\n');
+            source.append("    number count\n    number scale\n    string label\n");
+            source.append("    construct()\n        count = 0\n        scale = ").append(i + 1).append('\n');
+            source.append("        label = \"worker ").append(i).append("\"\n");
+            source.append("    step()\n        number next\n        next = count + scale * 2 - 1\n");
+            source.append("        if next > 100\n            count = next % 100\n        else\n            count = next\n");
+            source.append("        console.write(label, \" \", count)\n");
+            source.append("    total() : number t\n        t = count * scale + ").append(i).append('\n');
+        }
+        return source.toString();
+    }
+}
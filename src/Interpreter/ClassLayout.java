@@ -0,0 +1,75 @@
+package Interpreter;
+
+import AST.ClassNode;
+import AST.VariableDeclarationNode;
+import Tran.SymbolTable;
+
+import java.util.HashMap;
+
+//Where an object keeps its members: each member name of a class has an offset, in the order the members are declared.
+//A name declared twice has one offset, with the type of the later declaration. Numbers, booleans and characters are
+//kept unboxed in ObjectIDT.primitives and strings and object references in ObjectIDT.references, so making an object
+//doesn't make a box for each member.
+public class ClassLayout {
+    //How the member at an offset is kept
+    public static final int NUMBER = 0; //The bits of its float, in primitives
+    public static final int BOOLEAN = 1; //1 or 0, in primitives
+    public static final int CHARACTER = 2; //In primitives
+    public static final int STRING = 3; //Its String, in references
+    public static final int REFERENCE = 4; //The Optional<ObjectIDT> a ReferenceIDT would hold, in references
+
+    private static final int NUMBER_TYPE = SymbolTable.intern("number");
+    private static final int BOOLEAN_TYPE = SymbolTable.intern("boolean");
+    private static final int CHARACTER_TYPE = SymbolTable.intern("character");
+    private static final int STRING_TYPE = SymbolTable.intern("string");
+
+    public final ClassNode node;
+    public final String[] names; //The member at each offset
+    public final int[] kinds; //How the member at each offset is kept
+    public final int[] indexes; //Where the member at each offset is, in primitives or references
+    public final int primitives; //The number of members kept in primitives
+    public final int references; //The number kept in references
+    private final HashMap<Integer, Integer> offsets = new HashMap<>();
+
+    public ClassLayout(ClassNode node) {
+        this.node = node;
+        for (int i = 0; i < node.members.size(); i++)
+            offsets.putIfAbsent(node.members.get(i).declaration.nameId, offsets.size());
+        names = new String[offsets.size()];
+        kinds = new int[offsets.size()];
+        indexes = new int[offsets.size()];
+        for (int i = 0; i < node.members.size(); i++) {
+            VariableDeclarationNode member = node.members.get(i).declaration;
+            int offset = offsets.get(member.nameId);
+            names[offset] = member.name;
+            kinds[offset] = kind(member.typeId);
+        }
+        int primitives = 0;
+        int references = 0;
+        for (int offset = 0; offset < kinds.length; offset++)
+            indexes[offset] = kinds[offset] < STRING ? primitives++ : references++;
+        this.primitives = primitives;
+        this.references = references;
+    }
+
+    private static int kind(int type) {
+        if (type == NUMBER_TYPE)
+            return NUMBER;
+        if (type == BOOLEAN_TYPE)
+            return BOOLEAN;
+        if (type == CHARACTER_TYPE)
+            return CHARACTER;
+        if (type == STRING_TYPE)
+            return STRING;
+        return REFERENCE;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    //The offset of a member, or -1 if the class has no member with this name
+    public int offset(int name) {
+        return offsets.getOrDefault(name, -1);
+    }
+}
@@ -0,0 +1,107 @@
+package Interpreter;
+
+import AST.*;
+
+import java.util.*;
+
+//The classes and interfaces of a program by name, with the methods and members of each class by name, the interfaces
+//it implements and the layout of its objects, so the Interpreter finds any of them with a hash lookup instead of searching the program. Names are
+//Tran.SymbolTable ids. Where two classes, interfaces or members share a name the first one counts, as it would for a
+//search from the start of the program. Built once the program is parsed, and not kept up to date with changes after.
+public class ClassRegistry {
+
+    //One class and what is in it
+    public static class ClassInfo {
+        public final ClassNode node;
+        public final ClassLayout layout;
+        private final HashMap<Integer, List<MethodDeclarationNode>> methods = new HashMap<>();
+        private final HashMap<Integer, MemberNode> members = new HashMap<>();
+        private final HashSet<Integer> interfaces;
+
+        private ClassInfo(ClassNode node) {
+            this.node = node;
+            layout = new ClassLayout(node);
+            for (MethodDeclarationNode m : node.methods)
+                methods.computeIfAbsent(m.nameId, name -> new ArrayList<>(1)).add(m);
+            for (MemberNode member : node.members)
+                members.putIfAbsent(member.declaration.nameId, member);
+            interfaces = new HashSet<>(node.interfaceIds);
+        }
+
+        //The first method with this name, or null
+        public MethodDeclarationNode method(int name) {
+            List<MethodDeclarationNode> named = methods.get(name);
+            return named == null ? null : named.getFirst();
+        }
+
+        //All the methods with this name, in the order they are declared
+        public List<MethodDeclarationNode> methods(int name) {
+            return methods.getOrDefault(name, List.of());
+        }
+
+        public MemberNode member(int name) {
+            return members.get(name);
+        }
+
+        public boolean implementsInterface(int name) {
+            return interfaces.contains(name);
+        }
+    }
+
+    private final HashMap<Integer, ClassInfo> classes = new HashMap<>();
+    private final IdentityHashMap<ClassNode, ClassInfo> byNode = new IdentityHashMap<>();
+    private final IdentityHashMap<MethodDeclarationNode, ClassInfo> owners = new IdentityHashMap<>();
+    private final HashMap<Integer, InterfaceNode> interfaces = new HashMap<>();
+    private final HashMap<Integer, List<MethodDeclarationNode>> methods = new HashMap<>(); //Across all classes
+    private final HashSet<Integer> memberNames = new HashSet<>();
+
+    public ClassRegistry(TranNode top) {
+        for (InterfaceNode i : top.Interfaces)
+            interfaces.putIfAbsent(i.nameId, i);
+        for (ClassNode c : top.Classes) {
+            ClassInfo info = new ClassInfo(c);
+            byNode.put(c, info);
+            classes.putIfAbsent(c.nameId, info);
+            for (MethodDeclarationNode m : c.methods) {
+                methods.computeIfAbsent(m.nameId, name -> new ArrayList<>(1)).add(m);
+                owners.put(m, info);
+            }
+            memberNames.addAll(info.members.keySet());
+        }
+    }
+
+    //The class with this name, or null
+    public ClassInfo classNamed(int name) {
+        return classes.get(name);
+    }
+
+    public InterfaceNode interfaceNamed(int name) {
+        return interfaces.get(name);
+    }
+
+    //What is in a class of the program
+    public ClassInfo info(ClassNode c) {
+        ClassInfo info = byNode.get(c);
+        if (info == null)
+            throw new IllegalArgumentException("Class " + c.name + " isn't part of the program");
+        return info;
+    }
+
+    //The class a method of the program is declared in
+    public ClassInfo owner(MethodDeclarationNode m) {
+        ClassInfo info = owners.get(m);
+        if (info == null)
+            throw new IllegalArgumentException("Method " + m.name + " isn't part of the program");
+        return info;
+    }
+
+    //The methods of every class with this name, in the order of the program
+    public List<MethodDeclarationNode> methodsNamed(int name) {
+        return methods.getOrDefault(name, List.of());
+    }
+
+    //Whether some class has a member with this name
+    public boolean isMemberName(int name) {
+        return memberNames.contains(name);
+    }
+}
@@ -0,0 +1,579 @@
+package Interpreter;
+
+import AST.*;
+import Tran.*;
+
+import java.util.*;
+
+//A front end for scripts that are run once. Every method and constructor body is turned into closures the moment the
+//parser finishes it, after which its statements are dropped, so no tree is kept besides the classes, their members and
+//method headers, which calls and new are linked against. Method bodies are skipped over while parsing and only parsed
+//and compiled the first time they are called, so a script pays nothing for the parts of a library it doesn't use, apart
+//from keeping their tokens. Locals, parameters and returns live in an array per call, with each name turned into its
+//index while compiling. Call sites and new find what they call the first time they run and keep it, since the class
+//they name may come later in the file.
+//It runs programs the way Interpreter does, including how Interpreter binds parameters and returns and finds the method
+//a call runs (see run() and CallSite), so a program does the same, or fails the same, on either.
+public class CompiledProgram implements Parser.BodyCompiler {
+
+    private static final int START = SymbolTable.intern("start");
+    private static final int CONSOLE = SymbolTable.intern("console");
+    private static final int STRING = SymbolTable.intern("string");
+    private static final int NUMBER = SymbolTable.intern("number");
+    private static final int BOOLEAN = SymbolTable.intern("boolean");
+    private static final int CHARACTER = SymbolTable.intern("character");
+    private static final int ITERATOR = SymbolTable.intern("iterator");
+    private static final int GET_NEXT = SymbolTable.intern("getNext");
+    private static final int WRITE = SymbolTable.intern("write");
+
+    private final TranNode top = new TranNode();
+    private final Map<Integer, ClassNode> classes = new HashMap<>();
+    private final Map<ClassNode, ClassLayout> layouts = new IdentityHashMap<>();
+    private final Map<Node, Body> bodies = new IdentityHashMap<>();
+    private final Set<Integer> memberNames = new HashSet<>(); //The names of the members of every class
+    private final ConsoleWrite consoleWrite = new ConsoleWrite();
+
+    private CompiledProgram() {
+        consoleWrite.isShared = true; //As Interpreter declares it, in a class console
+    }
+
+    public static CompiledProgram compile(String source) throws SyntaxErrorException {
+        var program = new CompiledProgram();
+        var parser = new Parser(program.top, new Lexer(source));
+        parser.setLazyMethodBodies(true);
+        parser.setBodyCompiler(program);
+        parser.Tran();
+        for (ClassNode c : program.top.Classes) {
+            program.classes.putIfAbsent(c.nameId, c);
+            for (MemberNode member : c.members)
+                program.memberNames.add(member.declaration.nameId);
+        }
+        return program;
+    }
+
+    //Runs the first shared, public start() without parameters, like Interpreter.start
+    public void start() {
+        for (ClassNode c : top.Classes)
+            for (MethodDeclarationNode m : c.methods)
+                if (m.nameId == START && m.parameters.isEmpty() && m.isShared && !m.isPrivate) {
+                    run(body(m), null, List.of());
+                    return;
+                }
+        throw new RuntimeException("No 'start' method found");
+    }
+
+    //              Compiling
+
+    //What runs a statement
+    private interface Code {
+        void run(Frame frame);
+    }
+
+    //What evaluates an expression
+    private interface Value {
+        InterpreterDataType get(Frame frame);
+
+        //The same where it could be assigned to: passed to a method or bound to a loop variable. A member on its own
+        //gives the box ObjectIDT.get() keeps it in, so assigning to it changes the member.
+        default InterpreterDataType bind(Frame frame) {
+            return get(frame);
+        }
+    }
+
+    //What a value is assigned to
+    private interface Target {
+        void set(Frame frame, InterpreterDataType value);
+    }
+
+    //One call of a method or constructor: the object it runs on, or null for shared methods, and its variables
+    private record Frame(ObjectIDT self, InterpreterDataType[] slots) {}
+
+    //A compiled body, with its variables in the slots Interpreter would give them (see FrameLayout)
+    private static final class Body {
+        final FrameLayout frame;
+        final List<VariableDeclarationNode> locals;
+        final List<VariableDeclarationNode> returns;
+        Code[] code;
+
+        Body(FrameLayout frame, List<VariableDeclarationNode> locals, List<VariableDeclarationNode> returns) {
+            this.frame = frame;
+            this.locals = locals;
+            this.returns = returns;
+        }
+    }
+
+    //As in Interpreter, the values passed to a method go in the slots of its locals, in order, and the names of its
+    //parameters aren't variables of their own
+    @Override
+    public void compile(MethodDeclarationNode method) {
+        var slots = new HashMap<Integer, Integer>();
+        var frame = new FrameLayout();
+        frame.locals = slots(method.locals, slots);
+        frame.returns = slots(method.returns, slots);
+        frame.parameters = new int[method.parameters.size()];
+        for (int i = 0; i < frame.parameters.length; i++)
+            frame.parameters[i] = i < frame.locals.length ? frame.locals[i] : -1;
+        bodies.put(method, body(frame, slots, method.locals, method.returns, method.statements));
+        method.locals = new ArrayList<>();
+        method.statements = new ArrayList<>();
+    }
+
+    //A constructor's parameters are bound by their names
+    @Override
+    public void compile(ConstructorNode constructor) {
+        var slots = new HashMap<Integer, Integer>();
+        var frame = new FrameLayout();
+        frame.locals = slots(constructor.locals, slots);
+        frame.parameters = slots(constructor.parameters, slots);
+        frame.returns = new int[0];
+        bodies.put(constructor, body(frame, slots, constructor.locals, List.of(), constructor.statements));
+        constructor.locals = new ArrayList<>();
+        constructor.statements = new ArrayList<>();
+    }
+
+    //The compiled body of a method, which is parsed and compiled first if this is the first call
+    private Body body(MethodDeclarationNode method) {
+        method.parseBody();
+        return bodies.get(method);
+    }
+
+    private Body body(FrameLayout frame, HashMap<Integer, Integer> slots, List<VariableDeclarationNode> locals,
+                      List<VariableDeclarationNode> returns, List<StatementNode> statements) {
+        loopVariables(statements, slots);
+        frame.size = slots.size();
+        var body = new Body(frame, locals, returns);
+        body.code = block(statements, slots);
+        return body;
+    }
+
+    //The slots of some declarations, added to slots (by name) for the names that don't have one yet
+    private static int[] slots(List<VariableDeclarationNode> declarations, HashMap<Integer, Integer> slots) {
+        int[] result = new int[declarations.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = slots.computeIfAbsent(declarations.get(i).nameId, name -> slots.size());
+        return result;
+    }
+
+    //A loop puts its variable in the frame whether it was declared or not, as Interpreter does, so each one gets a slot.
+    //One that wasn't declared is empty until the loop sets it, and until then the name is looked for among the members.
+    private static void loopVariables(List<StatementNode> statements, HashMap<Integer, Integer> slots) {
+        for (StatementNode statement : statements) {
+            if (statement instanceof LoopNode l) {
+                if (l.assignment != null)
+                    l.assignment.ifPresent(variable -> slots.computeIfAbsent(variable.nameId, name -> slots.size()));
+                loopVariables(l.statements, slots);
+            } else if (statement instanceof IfNode i) {
+                loopVariables(i.statements, slots);
+                i.elseStatement.ifPresent(e -> loopVariables(e.statements, slots));
+            }
+        }
+    }
+
+    private Code[] block(List<StatementNode> statements, Map<Integer, Integer> slots) {
+        Code[] code = new Code[statements.size()];
+        for (int i = 0; i < code.length; i++)
+            code[i] = statement(statements.get(i), slots);
+        return code;
+    }
+
+    private Code statement(StatementNode statement, Map<Integer, Integer> slots) {
+        switch (statement) {
+            case AssignmentNode a -> {
+                Target target = target(a.target, slots);
+                Value value = expression(a.expression, slots);
+                return frame -> target.set(frame, value.get(frame));
+            }
+            case MethodCallStatementNode m -> {
+                //Interpreter leaves the variables on the left of a call as they are
+                CallSite call = new CallSite(m.objectNameId, m.objectName.orElse(null), m.methodNameId,
+                        expressions(m.parameters, slots), slots);
+                return frame -> {
+                    if (call.call(frame) == null)
+                        throw new RuntimeException("No method call found");
+                };
+            }
+            case IfNode i -> {
+                Value condition = expression(i.condition, slots);
+                Code[] then = block(i.statements, slots);
+                Code[] otherwise = i.elseStatement.isPresent() ? block(i.elseStatement.get().statements, slots) : new Code[0];
+                return frame -> run(bool(condition.get(frame)) ? then : otherwise, frame);
+            }
+            case LoopNode l -> {
+                Value condition = expression(l.expression, slots);
+                //The loop variable's slot is set to each value rather than assigned to, as Interpreter does
+                int assignment = l.assignment != null && l.assignment.isPresent() ? slots.get(l.assignment.get().nameId) : -1;
+                Code[] statements = block(l.statements, slots);
+                return frame -> {
+                    //Run in an object of a class that implements iterator, a loop first goes through its getNext()
+                    //values, and then loops on its condition like any other, as it does in Interpreter
+                    if (frame.self != null && frame.self.astNode.interfaceIds.contains(ITERATOR)) {
+                        Body getNext = getNext(frame.self.astNode);
+                        while (true) {
+                            List<InterpreterDataType> values = run(getNext, frame.self, List.of());
+                            if (!bool(values.getFirst()))
+                                break;
+                            if (assignment != -1 && frame.slots[assignment] != null)
+                                frame.slots[assignment] = values.getLast();
+                            run(statements, frame);
+                        }
+                    }
+                    while (true) {
+                        InterpreterDataType value = assignment != -1 ? condition.bind(frame) : condition.get(frame);
+                        if (!bool(value))
+                            break;
+                        if (assignment != -1)
+                            frame.slots[assignment] = value;
+                        run(statements, frame);
+                    }
+                };
+            }
+            case null, default -> throw new RuntimeException("Unknown statement type");
+        }
+    }
+
+    private Value[] expressions(List<ExpressionNode> expressions, Map<Integer, Integer> slots) {
+        Value[] values = new Value[expressions.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = expression(expressions.get(i), slots);
+        return values;
+    }
+
+    private Value expression(ExpressionNode expression, Map<Integer, Integer> slots) {
+        switch (expression) {
+            case BooleanLiteralNode b -> {
+                boolean value = b.value;
+                return frame -> new BooleanIDT(value);
+            }
+            case StringLiteralNode s -> {
+                String value = s.value;
+                return frame -> new StringIDT(value);
+            }
+            case CharLiteralNode c -> {
+                char value = c.value;
+                return frame -> new CharIDT(value);
+            }
+            case NumericLiteralNode n -> {
+                float value = n.value;
+                return frame -> new NumberIDT(value);
+            }
+            case VariableReferenceNode v -> {
+                return variable(v.nameId, v.name, slots);
+            }
+            case MathOpNode m -> {
+                Value left = expression(m.left, slots);
+                Value right = expression(m.right, slots);
+                MathOpNode.MathOperations op = m.op;
+                return frame -> math(op, left.get(frame), right.get(frame));
+            }
+            case CompareNode c -> {
+                Value left = expression(c.left, slots);
+                Value right = expression(c.right, slots);
+                CompareNode.CompareOperations op = c.op;
+                return frame -> new BooleanIDT(compare(op, left.get(frame), right.get(frame)));
+            }
+            case BooleanOpNode b -> {
+                Value left = expression(b.left, slots);
+                Value right = expression(b.right, slots);
+                if (b.op == BooleanOpNode.BooleanOperations.and)
+                    return frame -> new BooleanIDT(bool(left.get(frame)) & bool(right.get(frame)));
+                return frame -> new BooleanIDT(bool(left.get(frame)) | bool(right.get(frame)));
+            }
+            case NotOpNode n -> {
+                Value operand = expression(n.left, slots);
+                return frame -> new BooleanIDT(!bool(operand.get(frame)));
+            }
+            case MethodCallExpressionNode m -> {
+                CallSite call = new CallSite(m.objectNameId, m.objectName.orElse(null), m.methodNameId,
+                        expressions(m.parameters, slots), slots);
+                //The first of what the method hands back, which is its first local if it has any
+                return frame -> Objects.requireNonNull(call.call(frame), "No method call found").getFirst();
+            }
+            case NewNode n -> {
+                return new NewSite(n.classNameId, n.className, expressions(n.parameters, slots));
+            }
+            case null, default -> throw new RuntimeException("Unknown expression type");
+        }
+    }
+
+    //A local, parameter or return by its index, otherwise a member of the object the method runs on. So is a loop
+    //variable whose slot is still empty.
+    private static Value variable(int id, String name, Map<Integer, Integer> slots) {
+        Integer slot = slots.get(id);
+        return new Variable(slot != null ? slot : -1, id, name);
+    }
+
+    private record Variable(int slot, int id, String name) implements Value {
+        @Override
+        public InterpreterDataType get(Frame frame) {
+            InterpreterDataType value = slot == -1 ? null : frame.slots[slot];
+            return value != null ? value : frame.self.value(member(frame, id, name));
+        }
+
+        @Override
+        public InterpreterDataType bind(Frame frame) {
+            InterpreterDataType value = slot == -1 ? null : frame.slots[slot];
+            return value != null ? value : frame.self.get(member(frame, id, name));
+        }
+    }
+
+    //The same, for assigning to. Members are kept as values in the object, so are set through it.
+    private static Target target(VariableReferenceNode variable, Map<Integer, Integer> slots) {
+        int id = variable.nameId;
+        String name = variable.name;
+        Integer slot = slots.get(id);
+        if (slot != null) {
+            int index = slot;
+            return (frame, value) -> {
+                if (frame.slots[index] != null)
+                    frame.slots[index].Assign(value);
+                else
+                    frame.self.set(member(frame, id, name), value);
+            };
+        }
+        return (frame, value) -> frame.self.set(member(frame, id, name), value);
+    }
+
+    private static int member(Frame frame, int id, String name) {
+        int offset = frame.self == null ? -1 : frame.self.layout.offset(id);
+        if (offset == -1)
+            throw new RuntimeException("Unable to find variable " + name);
+        return offset;
+    }
+
+    //              Running
+
+    private static void run(Code[] code, Frame frame) {
+        for (Code statement : code)
+            statement.run(frame);
+    }
+
+    //Runs a body the way Interpreter runs a method, and hands back what Interpreter does: the locals, then the returns
+    private List<InterpreterDataType> run(Body body, ObjectIDT self, List<InterpreterDataType> values) {
+        FrameLayout layout = body.frame;
+        InterpreterDataType[] slots = new InterpreterDataType[layout.size];
+        for (int i = 0; i < layout.locals.length; i++)
+            slots[layout.locals[i]] = instantiate(body.locals.get(i).typeId);
+        if (values.size() != layout.parameters.length)
+            throw new RuntimeException("Wrong number of parameters");
+        for (int i = 0; i < values.size(); i++)
+            slots[layout.parameters[i]] = values.get(i);
+        for (int i = 0; i < layout.returns.length; i++)
+            slots[layout.returns[i]] = instantiate(body.returns.get(i).typeId);
+        run(body.code, new Frame(self, slots));
+        List<InterpreterDataType> result = new ArrayList<>(layout.locals.length + layout.returns.length);
+        for (int slot : layout.locals)
+            result.add(slots[slot]);
+        for (int slot : layout.returns)
+            result.add(slots[slot]);
+        return result;
+    }
+
+    //The values passed to a method. Members are only bound, as what the method is given, when it could change them.
+    private static List<InterpreterDataType> evaluate(Value[] parameters, Frame frame, boolean bound) {
+        List<InterpreterDataType> values = new ArrayList<>(parameters.length);
+        for (Value parameter : parameters)
+            values.add(bound ? parameter.bind(frame) : parameter.get(frame));
+        return values;
+    }
+
+    //A method call, which finds its method as Interpreter does. Without an object name it is the first method of that
+    //name in the class of the object the caller runs on, kept along with the class and found again only when an object
+    //of another class comes along. A shared method has no object to look in, so finds nothing. With an object name it
+    //is the method of that name declared last in the program, console.write() if the name is write. That is found when
+    //the call first runs, and run on the caller's object if the object name is a class or a member, or on the object a
+    //local refers to. A call that finds nothing gives null.
+    private final class CallSite {
+        private final int objectNameId;
+        private final String objectName; //Null when the method is called without an object
+        private final int methodNameId;
+        private final Value[] parameters;
+        private final int objectSlot; //The slot of the variable objectName, or -1
+        private boolean linked;
+        private MethodDeclarationNode named; //The method declared last with this name, if there is an object name
+        private boolean onClass; //Whether objectName is a class and named is shared
+        private ClassNode linkedClass; //The class linkedMethod was found in
+        private MethodDeclarationNode linkedMethod;
+
+        CallSite(int objectNameId, String objectName, int methodNameId, Value[] parameters, Map<Integer, Integer> slots) {
+            this.objectNameId = objectNameId;
+            this.objectName = objectName;
+            this.methodNameId = methodNameId;
+            this.parameters = parameters;
+            this.objectSlot = objectName == null ? -1 : slots.getOrDefault(objectNameId, -1);
+        }
+
+        List<InterpreterDataType> call(Frame frame) {
+            if (!linked)
+                link();
+            ObjectIDT self = frame.self;
+            MethodDeclarationNode method = null;
+            if (objectName == null) {
+                if (self != null)
+                    method = method(self.astNode);
+            } else {
+                InterpreterDataType local = objectSlot == -1 ? null : frame.slots[objectSlot];
+                if (onClass)
+                    method = named;
+                else if (local != null && named != null) {
+                    method = named;
+                    self = ((ReferenceIDT) local).refersTo.orElse(null);
+                } else if (memberNames.contains(objectNameId))
+                    method = named;
+            }
+            boolean builtIn = method instanceof BuiltInMethodDeclarationNode;
+            List<InterpreterDataType> values = evaluate(parameters, frame, !builtIn);
+            if (method == null)
+                return null;
+            if (builtIn)
+                return consoleWrite.Execute(values);
+            return run(body(method), self, values);
+        }
+
+        //The method in this class, from the last call if the class is the same
+        private MethodDeclarationNode method(ClassNode c) {
+            if (c != linkedClass) {
+                linkedClass = c;
+                linkedMethod = null;
+                for (MethodDeclarationNode m : c.methods)
+                    if (m.nameId == methodNameId) {
+                        linkedMethod = m;
+                        break;
+                    }
+            }
+            return linkedMethod;
+        }
+
+        private void link() {
+            linked = true;
+            if (objectName == null)
+                return;
+            if (methodNameId == WRITE)
+                named = consoleWrite;
+            else
+                for (ClassNode c : top.Classes)
+                    for (MethodDeclarationNode m : c.methods)
+                        if (m.nameId == methodNameId)
+                            named = m;
+            onClass = named != null && named.isShared && (classes.containsKey(objectNameId) || objectNameId == CONSOLE);
+        }
+    }
+
+    //The getNext() an iterator loop calls, the first one in the class as in Interpreter
+    private Body getNext(ClassNode c) {
+        for (MethodDeclarationNode m : c.methods)
+            if (m.nameId == GET_NEXT)
+                return body(m);
+        throw new RuntimeException("getNext method not found");
+    }
+
+    //A new. The class is found when it first runs.
+    private final class NewSite implements Value {
+        private final int classNameId;
+        private final String className;
+        private final Value[] parameters;
+        private ClassNode linkedClass;
+        private ClassLayout layout; //Of linkedClass, shared by the new sites of that class
+
+        NewSite(int classNameId, String className, Value[] parameters) {
+            this.classNameId = classNameId;
+            this.className = className;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public InterpreterDataType get(Frame frame) {
+            if (linkedClass == null) {
+                linkedClass = classes.get(classNameId);
+                if (linkedClass == null)
+                    throw new RuntimeException("Unknown class " + className);
+                layout = layouts.computeIfAbsent(linkedClass, ClassLayout::new);
+            }
+            ObjectIDT created = new ObjectIDT(layout);
+            List<InterpreterDataType> values = evaluate(parameters, frame, true);
+            //Interpreter runs every constructor in turn, and stops at the first one the values don't fit
+            for (ConstructorNode c : linkedClass.constructors) {
+                if (c.parameters.size() != values.size() || !typesMatch(c.parameters, values))
+                    throw new RuntimeException("Constructor not found");
+                run(bodies.get(c), created, values);
+            }
+            ReferenceIDT reference = new ReferenceIDT();
+            reference.Assign(created);
+            return reference;
+        }
+    }
+
+    private static boolean bool(InterpreterDataType value) {
+        if (value instanceof BooleanIDT b)
+            return b.Value;
+        throw new RuntimeException("Expected a boolean, not " + value);
+    }
+
+    private static InterpreterDataType math(MathOpNode.MathOperations op, InterpreterDataType left, InterpreterDataType right) {
+        if (left instanceof NumberIDT l && right instanceof NumberIDT r) {
+            return new NumberIDT(switch (op) {
+                case add -> l.Value + r.Value;
+                case subtract -> l.Value - r.Value;
+                case multiply -> l.Value * r.Value;
+                case divide -> l.Value / r.Value;
+                case modulo -> l.Value % r.Value;
+            });
+        }
+        if (left instanceof StringIDT l && right instanceof StringIDT r && op == MathOpNode.MathOperations.add)
+            return new StringIDT(l.Value.concat(r.Value));
+        throw new RuntimeException("Can't do math with given type");
+    }
+
+    private static boolean compare(CompareNode.CompareOperations op, InterpreterDataType left, InterpreterDataType right) {
+        float l;
+        float r;
+        if (left instanceof NumberIDT a && right instanceof NumberIDT b) {
+            l = a.Value;
+            r = b.Value;
+        } else if (left instanceof CharIDT a && right instanceof CharIDT b) {
+            l = a.Value;
+            r = b.Value;
+        } else
+            throw new RuntimeException("Can't compare with given type");
+        return switch (op) {
+            case eq -> l == r;
+            case lt -> l < r;
+            case gt -> l > r;
+            case ne -> l != r;
+            case le -> l <= r;
+            case ge -> l >= r;
+        };
+    }
+
+    //Whether the values can be passed to these parameters, as Interpreter decides it
+    private static boolean typesMatch(List<VariableDeclarationNode> parameters, List<InterpreterDataType> values) {
+        for (int i = 0; i < values.size(); i++) {
+            int type = parameters.get(i).typeId;
+            InterpreterDataType value = values.get(i);
+            if (value instanceof ReferenceIDT reference && reference.refersTo != null && reference.refersTo.isPresent())
+                value = reference.refersTo.get();
+            boolean matches = switch (value) {
+                case StringIDT s -> type == STRING;
+                case BooleanIDT b -> type == BOOLEAN;
+                case CharIDT c -> type == CHARACTER;
+                case NumberIDT n -> type == NUMBER;
+                case ObjectIDT o -> o.astNode.nameId == type || o.astNode.interfaceIds.contains(type);
+                default -> false;
+            };
+            if (!matches)
+                return false;
+        }
+        return true;
+    }
+
+    private static InterpreterDataType instantiate(int type) {
+        if (type == STRING)
+            return new StringIDT("");
+        if (type == NUMBER)
+            return new NumberIDT(0);
+        if (type == BOOLEAN)
+            return new BooleanIDT(false);
+        if (type == CHARACTER)
+            return new CharIDT(' ');
+        return new ReferenceIDT();
+    }
+}
@@ -1,6 +1,7 @@
 package Interpreter;
 
 import AST.*;
+import Tran.SymbolTable;
 
 import java.util.*;
 
@@ -8,6 +9,19 @@ public class Interpreter {
     private TranNode top;
     private BuiltInMethodDeclarationNode consoleWrite;
 
+    //The classes of the program by name, built by start() once all of them are there
+    private ClassRegistry registry;
+
+    //Names the interpreter looks for itself, interned once so they can be compared against the ids in the AST
+    private static final int START = SymbolTable.intern("start");
+    private static final int CONSTRUCT = SymbolTable.intern("construct");
+    private static final int ITERATOR = SymbolTable.intern("iterator");
+    private static final int GET_NEXT = SymbolTable.intern("getNext");
+    private static final int STRING = SymbolTable.intern("string");
+    private static final int NUMBER = SymbolTable.intern("number");
+    private static final int BOOLEAN = SymbolTable.intern("boolean");
+    private static final int CHARACTER = SymbolTable.intern("character");
+
     /**
      * Constructor - get the interpreter ready to run. Set members from parameters and "prepare" the class.
      * <p>
@@ -21,8 +35,10 @@ public class Interpreter {
         consoleWrite = new ConsoleWrite();
         ClassNode builtInClass = new ClassNode();
         builtInClass.name = "console";
+        builtInClass.nameId = SymbolTable.intern("console");
         builtInClass.methods.add(consoleWrite);
         builtInClass.methods.get(0).name = "write";
+        builtInClass.methods.get(0).nameId = SymbolTable.intern("write");
         builtInClass.methods.get(0).isShared = true;
         top.Classes.add(builtInClass);
     }
@@ -36,13 +52,13 @@ public class Interpreter {
      * Throw an exception if no such method exists.
      */
     public void start() {
+        registry = new ClassRegistry(top);
+        link();
         // Find the "start" method
-        for (int i = 0; i < top.Classes.size(); i++) {
-            for (int j = 0; j < top.Classes.get(i).methods.size(); j++) {
-                if (top.Classes.get(i).methods.get(j).name.equals("start") && top.Classes.get(i).methods.get(j).parameters.isEmpty() && top.Classes.get(i).methods.get(j).isShared && !top.Classes.get(i).methods.get(j).isPrivate) {
-                    interpretMethodCall(Optional.empty(), top.Classes.get(i).methods.get(j), new LinkedList<>());
-                    return;
-                }
+        for (MethodDeclarationNode m : registry.methodsNamed(START)) {
+            if (m.parameters.isEmpty() && m.isShared && !m.isPrivate) {
+                interpretMethodCall(Optional.empty(), m, new LinkedList<>());
+                return;
             }
         }
         throw new RuntimeException("No 'start' method found");
@@ -69,51 +85,183 @@ public class Interpreter {
      * @param mc     - the method call
      * @return - the return values
      */
-    private List<InterpreterDataType> findMethodForMethodCallAndRunIt(Optional<ObjectIDT> object, HashMap<String, InterpreterDataType> locals, MethodCallStatementNode mc) {
-        List<InterpreterDataType> values = getParameters(object, locals, mc); //Get the parameter value list.
+    private List<InterpreterDataType> findMethodForMethodCallAndRunIt(Optional<ObjectIDT> object, InterpreterDataType[] locals, MethodCallStatementNode mc) {
+        CallTarget target = mc.target != null ? mc.target : link(mc);
+        Optional<ObjectIDT> on = object; //The object the method runs on
+        MethodDeclarationNode found = null;
         if (mc.objectName.isEmpty() && object.isPresent()) { //No object name
-            for (int i = 0; i < object.get().astNode.methods.size(); i++) {
-                if (object.get().astNode.methods.get(i).name.equals(mc.methodName)) {
-                    return interpretMethodCall(object, object.get().astNode.methods.get(i), values);
-                }
+            ClassNode c = object.get().astNode;
+            if (target.selfClass != c) { //Only looked for again when called from an object of another class
+                target.selfMethod = registry.info(c).method(mc.methodNameId);
+                target.selfClass = c;
             }
+            found = target.selfMethod;
         }
-        MethodDeclarationNode md = matchMethodName(mc); //Match method name to one in a class
-        if (mc.objectName.isPresent()) {
-            if (md != null && md.isShared) { //If object name is a class and the method is shared
-                for (int i = 0; i < top.Classes.size(); i++) {
-                    if (mc.objectName.get().equals(top.Classes.get(i).name))
-                        return interpretMethodCall(object, md, values);
-                }
+        MethodDeclarationNode md = target.named; //The method name matched to one in a class
+        if (found == null && mc.objectName.isPresent()) {
+            InterpreterDataType local = target.objectSlot == -1 ? null : locals[target.objectSlot];
+            if (target.onClass) //If object name is a class and the method is shared
+                found = md;
+            else if (local != null && md != null) { //Object name is a local
+                found = md;
+                on = ((ReferenceIDT) local).refersTo;
+            } else if (target.onMember) //Object name is a member
+                found = md;
+        }
+        //Members are only passed as themselves to a method that could change them, not to console.write()
+        List<InterpreterDataType> values = getParameters(object, locals, mc, !(found instanceof BuiltInMethodDeclarationNode)); //Get the parameter value list.
+        return found == null ? null : interpretMethodCall(on, found, values);
+    }
+
+    //              Linking
+
+    //Works out once, before the program starts, where each method call goes, so that running one doesn't search the
+    //classes (see CallTarget), and which frame slot each variable is in (see FrameLayout). Methods whose bodies haven't
+    //been parsed yet are linked when they are.
+    private void link() {
+        for (ClassNode c : top.Classes) {
+            for (ConstructorNode constructor : c.constructors)
+                link(constructor, c);
+            for (MethodDeclarationNode m : c.methods) {
+                if (m.unparsedBody == null && !(m instanceof BuiltInMethodDeclarationNode))
+                    link(m, c);
             }
-            for (int i = 0; i < locals.size(); i++) { //Object name is a local
-                if (locals.containsKey(mc.objectName.get()) && md != null) {
-                    return interpretMethodCall(((ReferenceIDT)locals.get(mc.objectName.get())).refersTo, md, values);
-                }
+        }
+    }
+
+    //Parameters go in the slots of the locals, in order, as they are bound by name to the locals. Names that aren't
+    //variables of the method are looked for among the members of its class, owner.
+    private void link(MethodDeclarationNode m, ClassNode owner) {
+        HashMap<Integer, Integer> slots = new HashMap<>();
+        FrameLayout frame = new FrameLayout();
+        frame.locals = slots(m.locals, slots);
+        frame.returns = slots(m.returns, slots);
+        frame.parameters = new int[m.parameters.size()];
+        for (int i = 0; i < frame.parameters.length; i++)
+            frame.parameters[i] = i < frame.locals.length ? frame.locals[i] : -1;
+        loopVariables(m.statements, slots);
+        link(m.statements, slots, registry.info(owner).layout);
+        frame.size = slots.size();
+        m.frame = frame;
+    }
+
+    private void link(ConstructorNode c, ClassNode owner) {
+        HashMap<Integer, Integer> slots = new HashMap<>();
+        FrameLayout frame = new FrameLayout();
+        frame.locals = slots(c.locals, slots);
+        frame.parameters = slots(c.parameters, slots);
+        frame.returns = new int[0];
+        loopVariables(c.statements, slots);
+        link(c.statements, slots, registry.info(owner).layout);
+        frame.size = slots.size();
+        c.frame = frame;
+    }
+
+    //The slots of some declarations, added to slots (by name) for the names that don't have one yet
+    private static int[] slots(List<VariableDeclarationNode> declarations, HashMap<Integer, Integer> slots) {
+        int[] result = new int[declarations.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = slots.computeIfAbsent(declarations.get(i).nameId, name -> slots.size());
+        return result;
+    }
+
+    //A loop puts its variable in the frame whether it was declared or not, so each one has a slot
+    private static void loopVariables(List<StatementNode> statements, HashMap<Integer, Integer> slots) {
+        for (StatementNode statement : statements) {
+            if (statement instanceof LoopNode loopNode) {
+                if (loopNode.assignment != null)
+                    loopNode.assignment.ifPresent(variable -> slots.computeIfAbsent(variable.nameId, name -> slots.size()));
+                loopVariables(loopNode.statements, slots);
+            } else if (statement instanceof IfNode ifNode) {
+                loopVariables(ifNode.statements, slots);
+                ifNode.elseStatement.ifPresent(elseNode -> loopVariables(elseNode.statements, slots));
             }
-            for (int i = 0; i < top.Classes.size(); i++) { //Object name is a member
-                for (int j = 0; j < top.Classes.get(i).members.size(); j++) {
-                    if (mc.objectName.get().equals(top.Classes.get(i).members.get(j).declaration.name)) {
-                        return interpretMethodCall(object, md, values);
-                    }
+        }
+    }
+
+    private void link(List<StatementNode> statements, HashMap<Integer, Integer> slots, ClassLayout owner) {
+        for (int i = 0; i < statements.size(); i++) {
+            switch (statements.get(i)) {
+                case AssignmentNode assignmentNode -> {
+                    link(assignmentNode.target, slots, owner);
+                    link(assignmentNode.expression, slots, owner);
+                }
+                case MethodCallStatementNode methodCallStatementNode -> {
+                    link(methodCallStatementNode).objectSlot = slots.getOrDefault(methodCallStatementNode.objectNameId, -1);
+                    for (ExpressionNode parameter : methodCallStatementNode.parameters)
+                        link(parameter, slots, owner);
+                }
+                case LoopNode loopNode -> {
+                    if (loopNode.assignment != null)
+                        loopNode.assignment.ifPresent(variable -> link(variable, slots, owner));
+                    link(loopNode.expression, slots, owner);
+                    link(loopNode.statements, slots, owner);
+                }
+                case IfNode ifNode -> {
+                    link(ifNode.condition, slots, owner);
+                    link(ifNode.statements, slots, owner);
+                    ifNode.elseStatement.ifPresent(elseNode -> link(elseNode.statements, slots, owner));
+                }
+                case null, default -> {
                 }
             }
         }
-        return null;
     }
 
-    //Iterates through the classes and their methods until a method with the matching name is found. Returns null if nothing is found.
-    private MethodDeclarationNode matchMethodName(MethodCallStatementNode mc) {
-
-        MethodDeclarationNode method = null;
-        for (int i = 0; i < top.Classes.size(); i++) {
-            for (int j = 0; j < top.Classes.get(i).methods.size(); j++) {
-                if (mc.methodName.equals(top.Classes.get(i).methods.get(j).name)) {
-                    method = top.Classes.get(i).methods.get(j);
+    //Long chains of operators lean left, so the left side is followed in a loop rather than by recursion
+    private void link(ExpressionNode expression, HashMap<Integer, Integer> slots, ClassLayout owner) {
+        while (expression != null) {
+            switch (expression) {
+                case MathOpNode mathOpNode -> {
+                    link(mathOpNode.right, slots, owner);
+                    expression = mathOpNode.left;
+                }
+                case CompareNode compareNode -> {
+                    link(compareNode.right, slots, owner);
+                    expression = compareNode.left;
+                }
+                case BooleanOpNode booleanOpNode -> {
+                    link(booleanOpNode.right, slots, owner);
+                    expression = booleanOpNode.left;
+                }
+                case NotOpNode notOpNode -> expression = notOpNode.left;
+                case VariableReferenceNode variableReferenceNode -> {
+                    variableReferenceNode.slot = slots.getOrDefault(variableReferenceNode.nameId, -1);
+                    variableReferenceNode.memberOf = owner.node;
+                    variableReferenceNode.member = owner.offset(variableReferenceNode.nameId);
+                    return;
+                }
+                case MethodCallExpressionNode methodCallExpressionNode -> {
+                    methodCallExpressionNode.target = target(methodCallExpressionNode.objectNameId, methodCallExpressionNode.methodNameId);
+                    methodCallExpressionNode.target.objectSlot = slots.getOrDefault(methodCallExpressionNode.objectNameId, -1);
+                    for (ExpressionNode parameter : methodCallExpressionNode.parameters)
+                        link(parameter, slots, owner);
+                    return;
+                }
+                case NewNode newNode -> {
+                    for (ExpressionNode parameter : newNode.parameters)
+                        link(parameter, slots, owner);
+                    return;
+                }
+                default -> {
+                    return;
                 }
             }
         }
-        return method;
+    }
+
+    private CallTarget link(MethodCallStatementNode mc) {
+        mc.target = target(mc.objectNameId, mc.methodNameId);
+        return mc.target;
+    }
+
+    private CallTarget target(int objectNameId, int methodNameId) {
+        CallTarget target = new CallTarget();
+        List<MethodDeclarationNode> named = registry.methodsNamed(methodNameId);
+        target.named = named.isEmpty() ? null : named.getLast();
+        target.onClass = objectNameId != -1 && target.named != null && target.named.isShared && registry.classNamed(objectNameId) != null;
+        target.onMember = objectNameId != -1 && registry.isMemberName(objectNameId);
+        return target;
     }
 
     /**
@@ -138,31 +286,31 @@ public class Interpreter {
         if (m instanceof BuiltInMethodDeclarationNode) {
             return consoleWrite.Execute(values);
         }
-        HashMap<String, InterpreterDataType> locals = new HashMap<>();
+        if (m.frame == null) { //Parsed since link() ran, or only now
+            m.parseBody();
+            link(m, registry.owner(m).node);
+        }
+        FrameLayout layout = m.frame;
+        InterpreterDataType[] locals = new InterpreterDataType[layout.size];
         for (int i = 0; i < m.locals.size(); i++) {
-            locals.put(m.locals.get(i).name, instantiate(m.locals.get(i).type));
+            locals[layout.locals[i]] = instantiate(m.locals.get(i).typeId);
         }
-        List<InterpreterDataType> params = new ArrayList<>(values);
         if (m.parameters.size() != values.size()) {
             throw new RuntimeException("Wrong number of parameters");
         }
-        for (int i = 0; i < params.size(); i++) {
-            locals.put(m.locals.get(i).name, params.get(i));
+        for (int i = 0; i < values.size(); i++) {
+            locals[layout.parameters[i]] = values.get(i);
         }
         for (int i = 0; i < m.returns.size(); i++) {
-            locals.put(m.returns.get(i).name, instantiate(m.returns.get(i).type));
+            locals[layout.returns[i]] = instantiate(m.returns.get(i).typeId);
         }
         interpretStatementBlock(object, m.statements, locals);
 
         for (int i = 0; i < m.locals.size(); i++) {
-            if (locals.containsKey(m.locals.get(i).name)) {
-                retVal.add(locals.get(m.locals.get(i).name));
-            }
+            retVal.add(locals[layout.locals[i]]);
         }
         for (int i = 0; i < m.returns.size(); i++) {
-            if (locals.containsKey(m.returns.get(i).name)) {
-                retVal.add(locals.get(m.returns.get(i).name));
-            }
+            retVal.add(locals[layout.returns[i]]);
         }
         return retVal;
     }
@@ -183,9 +331,9 @@ public class Interpreter {
      * @param mc        - the method call for this construction
      * @param newOne    - the object that we just created that we are calling the constructor for
      */
-    private void findConstructorAndRunIt(Optional<ObjectIDT> callerObj, HashMap<String, InterpreterDataType> locals, MethodCallStatementNode mc, ObjectIDT newOne) {
-        List<InterpreterDataType> values = getParameters(callerObj, locals, mc);
-        Optional<ClassNode> classNode = getClassByName(newOne.astNode.name);
+    private void findConstructorAndRunIt(Optional<ObjectIDT> callerObj, InterpreterDataType[] locals, MethodCallStatementNode mc, ObjectIDT newOne) {
+        List<InterpreterDataType> values = getParameters(callerObj, locals, mc, true);
+        Optional<ClassNode> classNode = getClassByName(newOne.astNode.nameId);
         if (classNode.isEmpty()) throw new RuntimeException("Class not found");
         for (int i = 0; i < classNode.get().constructors.size(); i++) {
             if (doesConstructorMatch(classNode.get().constructors.get(i), mc, values))
@@ -208,15 +356,18 @@ public class Interpreter {
      * @param values - the parameter values being passed to the constructor
      */
     private void interpretConstructorCall(ObjectIDT object, ConstructorNode c, List<InterpreterDataType> values) {
-        HashMap<String, InterpreterDataType> locals = new HashMap<>();
+        if (c.frame == null)
+            link(c, object.astNode);
+        FrameLayout layout = c.frame;
+        InterpreterDataType[] locals = new InterpreterDataType[layout.size];
         for (int i = 0; i < c.locals.size(); i++) {
-            locals.put(c.locals.get(i).name, instantiate(c.locals.get(i).type));
+            locals[layout.locals[i]] = instantiate(c.locals.get(i).typeId);
         }
         if (values.size() != c.parameters.size()) {
             throw new RuntimeException("Wrong number of parameters");
         }
         for (int i = 0; i < c.parameters.size(); i++) {
-            locals.put(c.parameters.get(i).name, values.get(i));
+            locals[layout.parameters[i]] = values.get(i);
         }
         interpretStatementBlock(Optional.ofNullable(object), c.statements, locals);
     }
@@ -247,58 +398,51 @@ public class Interpreter {
      * @param statements - the statements to run
      * @param locals     - the local variables
      */
-    private void interpretStatementBlock(Optional<ObjectIDT> object, List<StatementNode> statements, HashMap<String, InterpreterDataType> locals) {
+    private void interpretStatementBlock(Optional<ObjectIDT> object, List<StatementNode> statements, InterpreterDataType[] locals) {
 
         for (int i = 0; i < statements.size(); i++) {
             switch (statements.get(i)) { //Loop through all the statements passed in
                 case AssignmentNode assignmentNode -> {
-                    InterpreterDataType target = findVariable(assignmentNode.target.name, locals, object); //Get the target
-                    target.Assign(evaluate(locals, object, assignmentNode.expression)); //Assign the evaluation of the expression to the target
+                    VariableReferenceNode target = assignmentNode.target;
+                    if (target.slot != -1 && locals[target.slot] != null) { //A local
+                        locals[target.slot].Assign(evaluate(locals, object, assignmentNode.expression)); //Assign the evaluation of the expression to the target
+                    } else { //A member, set through the object, which may not have a box for it
+                        int offset = memberOffset(target, object);
+                        if (offset == -1) throw new RuntimeException("Unable to find variable " + target.name);
+                        object.get().set(offset, evaluate(locals, object, assignmentNode.expression));
+                    }
                 }
                 case MethodCallStatementNode methodCallStatementNode -> {
                     List<InterpreterDataType> values = findMethodForMethodCallAndRunIt(object, locals, methodCallStatementNode);
                     if (values == null) throw new RuntimeException("No method call found");
-                    for (int j = 0; j < values.size(); j++) {
-                        locals.put(values.get(j).getClass().getName(), values.get(j)); //Copy the return values from the method into the local variables
-                    }
                 }
                 case LoopNode loopNode -> {
-                    if (object.isPresent()) {
-                        MethodDeclarationNode getNext = new MethodDeclarationNode();
-                        for (int j = 0; j < object.get().astNode.interfaces.size(); i++) { //Check if iterator is an interface to this object
-                            if (object.get().astNode.interfaces.get(j).equals("iterator")) {
-                                for (int k = 0; k < object.get().astNode.methods.size(); k++) { //Look for getNext in this object's methods
-                                    if (object.get().astNode.methods.get(k).name.equals("getNext"))
-                                        getNext = object.get().astNode.methods.get(k);
-                                    if (k == object.get().astNode.methods.size() - 1) {
-                                        throw new RuntimeException("getNext method not found");
-                                    }
-                                }
-
-                            }
-                        }
+                    if (object.isPresent() && registry.info(object.get().astNode).implementsInterface(ITERATOR)) { //Check if iterator is an interface to this object
+                        MethodDeclarationNode getNext = registry.info(object.get().astNode).method(GET_NEXT);
+                        if (getNext == null)
+                            throw new RuntimeException("getNext method not found");
                         while (true) { //Iterator loop
-                            List<InterpreterDataType> result = interpretMethodCall(object, getNext, locals.values().stream().toList());
+                            List<InterpreterDataType> result = interpretMethodCall(object, getNext, new LinkedList<>());
                             boolean hasNext = ((BooleanIDT) result.getFirst()).Value; //Boolean which decides to continue the loop
                             if (!hasNext) break;
 
                             InterpreterDataType next = (InterpreterDataType) result.getLast();
-                            if (loopNode.assignment.isPresent() && locals.containsKey(loopNode.assignment.get().name)) {
-                                locals.put(loopNode.assignment.get().name, next);
+                            if (loopNode.assignment.isPresent() && locals[loopNode.assignment.get().slot] != null) {
+                                locals[loopNode.assignment.get().slot] = next;
                             }
                             interpretStatementBlock(object, loopNode.statements, locals);
                         }
                     }
                     while (true) { //Non-iterator loop
-                        BooleanIDT condition = (BooleanIDT) evaluate(locals, object, loopNode.expression);
+                        //The loop variable is set to the condition itself, so a member as the condition stays the member
+                        BooleanIDT condition = (BooleanIDT) (loopNode.assignment.isPresent() ? bind(loopNode.expression, locals, object) : evaluate(locals, object, loopNode.expression));
                         if (!condition.Value) break;
-                        loopNode.assignment.ifPresent(variableReferenceNode -> locals.put(variableReferenceNode.name, condition));
+                        loopNode.assignment.ifPresent(variableReferenceNode -> locals[variableReferenceNode.slot] = condition);
                         interpretStatementBlock(object, loopNode.statements, locals);
                     }
                 }
                 case IfNode ifNode -> {
-                    BooleanIDT condition = (BooleanIDT) evaluate(locals, object, ifNode.condition);
-                    if (condition.Value)
+                    if (isTrue(ifNode.condition, locals, object))
                         interpretStatementBlock(object, ifNode.statements, locals);
                     else
                         ifNode.elseStatement.ifPresent(elseNode -> interpretStatementBlock(object, elseNode.statements, locals));
@@ -327,7 +471,7 @@ public class Interpreter {
      * @param expression - some expression to evaluate
      * @return a value
      */
-    private InterpreterDataType evaluate(HashMap<String, InterpreterDataType> locals, Optional<ObjectIDT> object, ExpressionNode expression) {
+    private InterpreterDataType evaluate(InterpreterDataType[] locals, Optional<ObjectIDT> object, ExpressionNode expression) {
         switch (expression) {
             case BooleanLiteralNode booleanLiteralNode -> {
                 return new BooleanIDT(booleanLiteralNode.value);
@@ -342,35 +486,40 @@ public class Interpreter {
                 return new NumberIDT(numericLiteralNode.value);
             }
             case BooleanOpNode booleanOpNode -> {
-                boolean left = ((BooleanIDT) evaluate(locals, object, booleanOpNode.left)).Value;
-                boolean right = ((BooleanIDT) evaluate(locals, object, booleanOpNode.right)).Value;
+                boolean left = isTrue(booleanOpNode.left, locals, object);
+                boolean right = isTrue(booleanOpNode.right, locals, object);
                 if (booleanOpNode.op.equals(BooleanOpNode.BooleanOperations.and))
                     return new BooleanIDT(left && right);
                 else
                     return new BooleanIDT(left || right);
             }
             case CompareNode compareNode -> {
-                InterpreterDataType left = evaluate(locals, object, compareNode.left);
-                InterpreterDataType right = evaluate(locals, object, compareNode.right);
-                if (left instanceof NumberIDT && right instanceof NumberIDT) {
+                //A number member is compared as the object keeps it, without making a NumberIDT for it
+                int leftMember = numberMember(compareNode.left, locals, object);
+                InterpreterDataType left = leftMember == -1 ? evaluate(locals, object, compareNode.left) : null;
+                float leftNumber = left == null ? object.get().number(leftMember) : left instanceof NumberIDT number ? number.Value : 0;
+                int rightMember = numberMember(compareNode.right, locals, object);
+                InterpreterDataType right = rightMember == -1 ? evaluate(locals, object, compareNode.right) : null;
+                float rightNumber = right == null ? object.get().number(rightMember) : right instanceof NumberIDT number ? number.Value : 0;
+                if ((left == null || left instanceof NumberIDT) && (right == null || right instanceof NumberIDT)) {
                     switch (compareNode.op) {
                         case eq -> {
-                            return new BooleanIDT((((NumberIDT) left)).Value == (((NumberIDT) right)).Value);
+                            return new BooleanIDT(leftNumber == rightNumber);
                         }
                         case lt -> {
-                            return new BooleanIDT((((NumberIDT) left)).Value < ((NumberIDT) right).Value);
+                            return new BooleanIDT(leftNumber < rightNumber);
                         }
                         case gt -> {
-                            return new BooleanIDT((((NumberIDT) left)).Value > ((NumberIDT) right).Value);
+                            return new BooleanIDT(leftNumber > rightNumber);
                         }
                         case ne -> {
-                            return new BooleanIDT((((NumberIDT) left)).Value != ((NumberIDT) right).Value);
+                            return new BooleanIDT(leftNumber != rightNumber);
                         }
                         case le -> {
-                            return new BooleanIDT((((NumberIDT) left)).Value <= ((NumberIDT) right).Value);
+                            return new BooleanIDT(leftNumber <= rightNumber);
                         }
                         case ge -> {
-                            return new BooleanIDT((((NumberIDT) left)).Value >= ((NumberIDT) right).Value);
+                            return new BooleanIDT(leftNumber >= rightNumber);
                         }
                         default -> throw new RuntimeException("Unknown operator");
                     }
@@ -401,24 +550,29 @@ public class Interpreter {
                 throw new RuntimeException("Can't compare with given type");
             }
             case MathOpNode mathOpNode -> {
-                InterpreterDataType left = evaluate(locals, object, mathOpNode.left);
-                InterpreterDataType right = evaluate(locals, object, mathOpNode.right);
-                if (left instanceof NumberIDT && right instanceof NumberIDT) {
+                //As for comparisons, a number member is used as the object keeps it
+                int leftMember = numberMember(mathOpNode.left, locals, object);
+                InterpreterDataType left = leftMember == -1 ? evaluate(locals, object, mathOpNode.left) : null;
+                float leftNumber = left == null ? object.get().number(leftMember) : left instanceof NumberIDT number ? number.Value : 0;
+                int rightMember = numberMember(mathOpNode.right, locals, object);
+                InterpreterDataType right = rightMember == -1 ? evaluate(locals, object, mathOpNode.right) : null;
+                float rightNumber = right == null ? object.get().number(rightMember) : right instanceof NumberIDT number ? number.Value : 0;
+                if ((left == null || left instanceof NumberIDT) && (right == null || right instanceof NumberIDT)) {
                     switch (mathOpNode.op) {
                         case add -> {
-                            return new NumberIDT(((NumberIDT) left).Value + ((NumberIDT) right).Value);
+                            return new NumberIDT(leftNumber + rightNumber);
                         }
                         case subtract -> {
-                            return new NumberIDT(((NumberIDT) left).Value - ((NumberIDT) right).Value);
+                            return new NumberIDT(leftNumber - rightNumber);
                         }
                         case multiply -> {
-                            return new NumberIDT(((NumberIDT) left).Value * ((NumberIDT) right).Value);
+                            return new NumberIDT(leftNumber * rightNumber);
                         }
                         case divide -> {
-                            return new NumberIDT(((NumberIDT) left).Value / ((NumberIDT) right).Value);
+                            return new NumberIDT(leftNumber / rightNumber);
                         }
                         case modulo -> {
-                            return new NumberIDT(((NumberIDT) left).Value % ((NumberIDT) right).Value);
+                            return new NumberIDT(leftNumber % rightNumber);
                         }
                         default -> throw new RuntimeException("Unknown operator");
                     }
@@ -431,25 +585,25 @@ public class Interpreter {
                 }
             }
             case MethodCallExpressionNode methodCallExpressionNode -> {
+                if (methodCallExpressionNode.target == null) //Not there when link() ran
+                    methodCallExpressionNode.target = target(methodCallExpressionNode.objectNameId, methodCallExpressionNode.methodNameId);
                 return Objects.requireNonNull(findMethodForMethodCallAndRunIt(object, locals, new MethodCallStatementNode(methodCallExpressionNode))).getFirst();
             }
             case VariableReferenceNode variableReferenceNode -> {
-                return findVariable(variableReferenceNode.name, locals, object);
+                return findVariable(variableReferenceNode, locals, object);
             }
             case NewNode newNode -> {
                 String className = newNode.className;
                 List<ExpressionNode> parameters = newNode.parameters;
-                Optional<ClassNode> classNode = getClassByName(className);
+                ClassRegistry.ClassInfo classInfo = registry.classNamed(newNode.classNameId);
                 ObjectIDT newObject;
-                if (classNode.isPresent()) {
-                    newObject = new ObjectIDT(classNode.get());
-                    for (int i = 0; i < newObject.astNode.members.size(); i++) {
-                        newObject.members.put(newObject.astNode.members.get(i).declaration.name, instantiate(newObject.astNode.members.get(i).declaration.type));
-                    }
+                if (classInfo != null) {
+                    newObject = new ObjectIDT(classInfo.layout);
                 } else
                     throw new RuntimeException("Unknown class " + className);
                 MethodCallStatementNode constructorCall = new MethodCallStatementNode();
                 constructorCall.methodName = "construct";
+                constructorCall.methodNameId = CONSTRUCT;
                 constructorCall.parameters = parameters;
                 findConstructorAndRunIt(object, locals, constructorCall, newObject);
                 ReferenceIDT referenceIDT = new ReferenceIDT();
@@ -478,13 +632,13 @@ public class Interpreter {
      * @return does this method match the method call?
      */
     private boolean doesMatch(MethodDeclarationNode m, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
-        if (!m.name.equals(mc.methodName)) return false;
+        if (m.nameId != mc.methodNameId) return false;
         if (!(m instanceof BuiltInMethodDeclarationNode)) {
             if (m.parameters.size() != mc.parameters.size()) return false;
             if (m.parameters.size() != parameters.size()) return false;
             if (m.returns.size() != mc.returnValues.size()) return false;
             for (int i = 0; i < parameters.size(); i++) {
-                if (!typeMatchToIDT(m.parameters.get(i).type, parameters.get(i))) return false;
+                if (!typeMatchToIDT(m.parameters.get(i).typeId, parameters.get(i))) return false;
             }
         }
         return true;
@@ -501,7 +655,7 @@ public class Interpreter {
     private boolean doesConstructorMatch(ConstructorNode c, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
         if (c.parameters.size() != mc.parameters.size()) return false;
         for (int i = 0; i < mc.parameters.size(); i++) {
-            if(!typeMatchToIDT(c.parameters.get(i).type, parameters.get(i))) return false;
+            if(!typeMatchToIDT(c.parameters.get(i).typeId, parameters.get(i))) return false;
         }
         return true;
     }
@@ -510,16 +664,18 @@ public class Interpreter {
      * Used when we call a method to get the list of values for the parameters.
      * <p>
      * for each parameter in the method call, call Evaluate() on the parameter to get an IDT and add it to a list
+     * A member passed on its own is passed in its box (see ObjectIDT.get()) when the method could assign to it.
      *
      * @param object - the current object
      * @param locals - the local variables
      * @param mc     - a method call
+     * @param bound  - whether the method could change what it is passed
      * @return the list of method values
      */
-    private List<InterpreterDataType> getParameters(Optional<ObjectIDT> object, HashMap<String, InterpreterDataType> locals, MethodCallStatementNode mc) {
+    private List<InterpreterDataType> getParameters(Optional<ObjectIDT> object, InterpreterDataType[] locals, MethodCallStatementNode mc, boolean bound) {
         List<InterpreterDataType> parameters = new ArrayList<>();
         for (ExpressionNode p : mc.parameters) {
-            parameters.add(evaluate(locals, object, p));
+            parameters.add(bound ? bind(p, locals, object) : evaluate(locals, object, p));
         }
         return parameters;
     }
@@ -532,54 +688,26 @@ public class Interpreter {
      * If the IDT is an object, check to see if the name matches OR the class has an interface that matches
      * If the IDT is a reference, check the inner (refered to) type
      *
-     * @param type the name of a data type (parameter to a method)
+     * @param type the symbol id of a data type (parameter to a method)
      * @param idt  the IDT someone is trying to pass to this method
      * @return is this OK?
      */
-    private boolean typeMatchToIDT(String type, InterpreterDataType idt) {
-        switch (type) {
-            case "string":
-                if (idt instanceof StringIDT) {
-                    return true;
-                }
-                break;
-            case "boolean":
-                if (idt instanceof BooleanIDT) {
-                    return true;
-                }
-                break;
-            case "character":
-                if (idt instanceof CharIDT) {
-                    return true;
-                }
-                break;
-            case "number":
-                if (idt instanceof NumberIDT) {
-                    return true;
-                }
-                break;
-        }
+    private boolean typeMatchToIDT(int type, InterpreterDataType idt) {
+        if (type == STRING && idt instanceof StringIDT)
+            return true;
+        if (type == BOOLEAN && idt instanceof BooleanIDT)
+            return true;
+        if (type == CHARACTER && idt instanceof CharIDT)
+            return true;
+        if (type == NUMBER && idt instanceof NumberIDT)
+            return true;
         if (idt instanceof ObjectIDT) {
-            if (((ObjectIDT) idt).astNode.name.equals(type)) {
-                return true;
-            } else {
-                for (int i = 0; i < ((ObjectIDT) idt).astNode.interfaces.size(); i++) {
-                    if (((ObjectIDT) idt).astNode.interfaces.get(i).equals(type)) {
-                        return true;
-                    }
-                }
-            }
+            ClassNode c = ((ObjectIDT) idt).astNode;
+            return c.nameId == type || registry.info(c).implementsInterface(type);
         }
         if (idt instanceof ReferenceIDT) {
-            if (((ReferenceIDT) idt).refersTo.get().astNode.name.equals(type)) {
-                return true;
-            } else {
-                for (int i = 0; i < ((ReferenceIDT) idt).refersTo.get().astNode.interfaces.size(); i++) {
-                    if (((ReferenceIDT) idt).refersTo.get().astNode.interfaces.get(i).equals(type)) {
-                        return true;
-                    }
-                }
-            }
+            ClassNode c = ((ReferenceIDT) idt).refersTo.get().astNode;
+            return c.nameId == type || registry.info(c).implementsInterface(type);
         }
         return false;
     }
@@ -595,64 +723,97 @@ public class Interpreter {
      * @return a method or throws an exception
      */
     private MethodDeclarationNode getMethodFromObject(ObjectIDT object, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
-        for (int i = 0; i < object.astNode.methods.size(); i++) {
-            if (doesMatch(object.astNode.methods.get(i), mc, parameters)) {
-                return object.astNode.methods.get(i);
+        for (MethodDeclarationNode m : registry.info(object.astNode).methods(mc.methodNameId)) {
+            if (doesMatch(m, mc, parameters)) {
+                return m;
             }
         }
         throw new RuntimeException("Unable to resolve method call " + mc);
     }
 
     /**
-     * Find a class, given the name. Just loops over the TranNode's classes member, matching by name.
-     * <p>
-     * Loop over each class in the top node, comparing names to find a match.
+     * Find a class, given the name, in the registry of the program's classes.
      *
-     * @param name Name of the class to find
+     * @param name Symbol id of the name of the class to find
      * @return either a class node or empty if that class doesn't exist
      */
-    private Optional<ClassNode> getClassByName(String name) {
-        for (int i = 0; i < top.Classes.size(); i++) {
-            if (top.Classes.get(i).name.equals(name)) {
-                return Optional.of(top.Classes.get(i));
-            }
-        }
-        return Optional.empty();
+    private Optional<ClassNode> getClassByName(int name) {
+        ClassRegistry.ClassInfo info = registry.classNamed(name);
+        return info == null ? Optional.empty() : Optional.of(info.node);
     }
 
     /**
-     * Given an execution environment (the current object, the current local variables), find a variable by name.
+     * Given an execution environment (the current object, the current local variables), find a variable.
+     * A local is in the frame slot link() gave the reference. The slot of a loop variable that wasn't declared is empty
+     * until the loop sets it, and until then the name is looked for among the members. A member comes as its value,
+     * which changes nothing when assigned to; bind() is for where the member itself is wanted.
      *
-     * @param name   - the variable that we are looking for
-     * @param locals - the current method's local variables
-     * @param object - the current object (so we can find members)
+     * @param variable - the variable that we are looking for
+     * @param locals   - the current method's frame
+     * @param object   - the current object (so we can find members)
      * @return the IDT that we are looking for or throw an exception
      */
-    private InterpreterDataType findVariable(String name, HashMap<String, InterpreterDataType> locals, Optional<ObjectIDT> object) {
-        if (locals.containsKey(name)) {
-            return locals.get(name);
+    private InterpreterDataType findVariable(VariableReferenceNode variable, InterpreterDataType[] locals, Optional<ObjectIDT> object) {
+        if (variable.slot != -1 && locals[variable.slot] != null) {
+            return locals[variable.slot];
         }
-        if (object.isPresent()) {
-            if (object.get().members.containsKey(name)) {
-                return object.get().members.get(name);
-            }
+        int offset = memberOffset(variable, object);
+        if (offset != -1) {
+            return object.get().value(offset);
         }
-        throw new RuntimeException("Unable to find variable " + name);
+        throw new RuntimeException("Unable to find variable " + variable.name);
+    }
+
+    //Evaluates an expression that is passed to a method or bound to a loop variable, where it could be assigned to. A
+    //member on its own comes in the box ObjectIDT.get() keeps it in, so assigning to it changes the member.
+    private InterpreterDataType bind(ExpressionNode expression, InterpreterDataType[] locals, Optional<ObjectIDT> object) {
+        int member = member(expression, locals, object, -1);
+        return member == -1 ? evaluate(locals, object, expression) : object.get().get(member);
+    }
+
+    //Evaluates a condition, reading a boolean member as the object keeps it
+    private boolean isTrue(ExpressionNode expression, InterpreterDataType[] locals, Optional<ObjectIDT> object) {
+        int member = member(expression, locals, object, ClassLayout.BOOLEAN);
+        return member == -1 ? ((BooleanIDT) evaluate(locals, object, expression)).Value : object.get().bool(member);
+    }
+
+    //The offset of the number member an expression reads, or -1 if it reads anything else
+    private int numberMember(ExpressionNode expression, InterpreterDataType[] locals, Optional<ObjectIDT> object) {
+        return member(expression, locals, object, ClassLayout.NUMBER);
+    }
+
+    //The offset of the member of a kind (any kind for -1) an expression reads, or -1 if it reads anything else
+    private int member(ExpressionNode expression, InterpreterDataType[] locals, Optional<ObjectIDT> object, int kind) {
+        if (!(expression instanceof VariableReferenceNode variable) || (variable.slot != -1 && locals[variable.slot] != null))
+            return -1;
+        int offset = memberOffset(variable, object);
+        return offset != -1 && (kind == -1 || object.get().layout.kinds[offset] == kind) ? offset : -1;
+    }
+
+    //Where the member a variable names is in the current object, or -1 if it has no such member. That is the offset
+    //link() found in the class of the method, unless the object is of another class, when it is looked up by name.
+    private int memberOffset(VariableReferenceNode variable, Optional<ObjectIDT> object) {
+        if (object.isEmpty())
+            return -1;
+        ObjectIDT self = object.get();
+        return self.astNode == variable.memberOf ? variable.member : self.layout.offset(variable.nameId);
     }
 
     /**
-     * Given a string (the type name), make an IDT for it.
+     * Given a type (the symbol id of the type name), make an IDT for it.
      *
-     * @param type The name of the type (string, number, boolean, character). Defaults to ReferenceIDT if not one of those.
+     * @param type The id of the type (string, number, boolean, character). Defaults to ReferenceIDT if not one of those.
      * @return an IDT with default values (0 for number, "" for string, false for boolean, ' ' for character)
      */
-    private InterpreterDataType instantiate(String type) {
-        return switch (type) {
-            case "string" -> new StringIDT("");
-            case "number" -> new NumberIDT(0);
-            case "boolean" -> new BooleanIDT(false);
-            case " character" -> new CharIDT(' ');
-            default -> new ReferenceIDT();
-        };
+    private InterpreterDataType instantiate(int type) {
+        if (type == STRING)
+            return new StringIDT("");
+        if (type == NUMBER)
+            return new NumberIDT(0);
+        if (type == BOOLEAN)
+            return new BooleanIDT(false);
+        if (type == CHARACTER)
+            return new CharIDT(' ');
+        return new ReferenceIDT();
     }
 }
@@ -2,14 +2,149 @@ package Interpreter;
 
 import AST.ClassNode;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Optional;
 
+//An object keeps the values of its members rather than a box for each, laid out by its ClassLayout. Reading a member
+//gives its value. A member only gets a box where a method could change it through what it was given: when it is passed
+//to a method, or a loop binds it to its variable. get() hands that box out as an IDT that stays the member, so
+//assigning to it changes the member, and from then on the box holds that member's value.
 public class ObjectIDT implements InterpreterDataType {
-    public final HashMap<String,InterpreterDataType> members = new HashMap<>();
+    private static final int[] NO_PRIMITIVES = new int[0];
+    private static final Object[] NO_REFERENCES = new Object[0];
+    private static final int[] NO_BOXES = new int[0];
+
+    private final int[] primitives; //The number, boolean and character members, at the indexes of layout
+    private final Object[] references; //The string and object members, at the indexes of layout
+    public final ClassLayout layout;
     public final ClassNode astNode;
+    private int[] boxed = NO_BOXES; //The offsets of the members get() has made boxes for, which are few
+    private InterpreterDataType[] boxes; //The box for each of them
+
+    //An object with every member at its default: 0, false, ' ', "" or no object
+    public ObjectIDT(ClassLayout layout) {
+        this.layout = layout;
+        this.astNode = layout.node;
+        primitives = layout.primitives == 0 ? NO_PRIMITIVES : new int[layout.primitives];
+        references = layout.references == 0 ? NO_REFERENCES : new Object[layout.references];
+        for (int offset = 0; offset < layout.size(); offset++) {
+            if (layout.kinds[offset] == ClassLayout.CHARACTER)
+                primitives[layout.indexes[offset]] = ' ';
+            else if (layout.kinds[offset] == ClassLayout.STRING)
+                references[layout.indexes[offset]] = "";
+        }
+    }
+
+    //The member at an offset, in the box it is kept in from now on. Reading it again gives the same box.
+    public InterpreterDataType get(int offset) {
+        InterpreterDataType box = box(offset);
+        if (box == null) {
+            box = unboxed(offset);
+            boxed = Arrays.copyOf(boxed, boxed.length + 1);
+            boxes = boxes == null ? new InterpreterDataType[1] : Arrays.copyOf(boxes, boxes.length + 1);
+            boxed[boxed.length - 1] = offset;
+            boxes[boxes.length - 1] = box;
+        }
+        return box;
+    }
+
+    //The box get() made for a member, or null
+    private InterpreterDataType box(int offset) {
+        for (int i = 0; i < boxed.length; i++)
+            if (boxed[i] == offset)
+                return boxes[i];
+        return null;
+    }
+
+    //The value of a member in an IDT of its own. Assigning to it leaves the member as it is.
+    public InterpreterDataType value(int offset) {
+        InterpreterDataType box = boxed.length == 0 ? null : box(offset);
+        if (box == null)
+            return unboxed(offset);
+        InterpreterDataType copy = unboxed(offset);
+        copy.Assign(box);
+        return copy;
+    }
+
+    //A new IDT with the value of an unboxed member
+    @SuppressWarnings("unchecked")
+    private InterpreterDataType unboxed(int offset) {
+        int index = layout.indexes[offset];
+        switch (layout.kinds[offset]) {
+            case ClassLayout.NUMBER -> {
+                return new NumberIDT(Float.intBitsToFloat(primitives[index]));
+            }
+            case ClassLayout.BOOLEAN -> {
+                return new BooleanIDT(primitives[index] != 0);
+            }
+            case ClassLayout.CHARACTER -> {
+                return new CharIDT((char) primitives[index]);
+            }
+            case ClassLayout.STRING -> {
+                return new StringIDT((String) references[index]);
+            }
+            default -> {
+                ReferenceIDT reference = new ReferenceIDT();
+                reference.refersTo = (Optional<ObjectIDT>) references[index];
+                return reference;
+            }
+        }
+    }
+
+    //The value of a number member, without making a NumberIDT for it
+    public float number(int offset) {
+        InterpreterDataType box = boxed.length == 0 ? null : box(offset);
+        if (box != null)
+            return ((NumberIDT) box).Value;
+        return Float.intBitsToFloat(primitives[layout.indexes[offset]]);
+    }
+
+    //The value of a boolean member, without making a BooleanIDT for it
+    public boolean bool(int offset) {
+        InterpreterDataType box = boxed.length == 0 ? null : box(offset);
+        if (box != null)
+            return ((BooleanIDT) box).Value;
+        return primitives[layout.indexes[offset]] != 0;
+    }
 
-    public ObjectIDT(ClassNode astNode) {
-        this.astNode = astNode;
+    //Sets the member at an offset. A value of the wrong type throws, as Assign() would.
+    public void set(int offset, InterpreterDataType value) {
+        InterpreterDataType box = boxed.length == 0 ? null : box(offset);
+        if (box != null) {
+            box.Assign(value);
+            return;
+        }
+        int index = layout.indexes[offset];
+        switch (layout.kinds[offset]) {
+            case ClassLayout.NUMBER -> {
+                if (!(value instanceof NumberIDT number))
+                    throw new RuntimeException("Trying to assign to a number IDT from a " + value.getClass());
+                primitives[index] = Float.floatToRawIntBits(number.Value);
+            }
+            case ClassLayout.BOOLEAN -> {
+                if (!(value instanceof BooleanIDT bool))
+                    throw new RuntimeException("Trying to assign to a boolean IDT from a " + value.getClass());
+                primitives[index] = bool.Value ? 1 : 0;
+            }
+            case ClassLayout.CHARACTER -> {
+                if (!(value instanceof CharIDT character))
+                    throw new RuntimeException("Trying to assign to a character IDT from a " + value.getClass());
+                primitives[index] = character.Value;
+            }
+            case ClassLayout.STRING -> {
+                if (!(value instanceof StringIDT string))
+                    throw new RuntimeException("Trying to assign to a string IDT from a " + value.getClass());
+                references[index] = string.Value;
+            }
+            default -> {
+                if (value instanceof ReferenceIDT reference)
+                    references[index] = reference.refersTo;
+                else if (value instanceof ObjectIDT object)
+                    references[index] = Optional.of(object);
+                else
+                    throw new RuntimeException("Trying to assign to a reference IDT from a " + value.getClass());
+            }
+        }
     }
 
     @Override
@@ -20,8 +155,8 @@ public class ObjectIDT implements InterpreterDataType {
     @Override
     public String toString() {
         StringBuilder out = new StringBuilder();
-        for (var m : members.entrySet())
-            out.append(m.getKey()).append(" : ").append(m.getValue().toString()).append("\n");
+        for (int i = 0; i < layout.size(); i++)
+            out.append(layout.names[i]).append(" : ").append(value(i)).append("\n");
         return out.toString();
     }
 }
@@ -0,0 +1,128 @@
+package Tests;
+
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import Tran.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class AstCacheTests {
+
+    private static final String program = """
+            interface shape
+                area() : number a
+                name() : string s
+            class square implements shape
+                number side = 2.5
+                character initial = 'q'
+                construct(number s)
+                    side = s
+                area() : number a
+                    a = side * side + 1 - 2 / 3 % 4
+                name() : string s
+                    number count
+                    s = "a square"
+                    if side >= 10
+                        s = "a big square"
+                    else
+                        console.write(s, count)
+                    loop i = side.times()
+                        count = count + 1
+                shared start()
+                    square sq
+                    number a
+                    sq = new square(3)
+                    a = sq.area()
+                    a, a = sq.both()
+            """;
+
+    private static TranNode parse(String text) throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(text).Lex()).Tran();
+        return top;
+    }
+
+    @Test
+    public void RoundTripTest() throws Exception {
+        TranNode top = parse(program);
+        TranNode read = AstSerializer.read(ByteBuffer.wrap(AstSerializer.write(top)));
+        Assertions.assertEquals(top.toString(), read.toString());
+
+        ClassNode square = read.Classes.getFirst();
+        Assertions.assertEquals(SymbolTable.intern("square"), square.nameId);
+        Assertions.assertEquals(SymbolTable.intern("shape"), square.interfaceIds.getFirst());
+        Assertions.assertEquals(SymbolTable.intern("side"), square.members.getFirst().declaration.nameId);
+        Assertions.assertEquals(SymbolTable.intern("area"), square.methods.getFirst().nameId);
+    }
+
+    @Test
+    public void CacheHitTest(@TempDir Path directory) throws Exception {
+        var cache = new AstCache(directory);
+        String expected = parse(program).toString();
+        Assertions.assertEquals(expected, cache.load(program).toString());
+        Assertions.assertFalse(cache.wasCached());
+        Assertions.assertEquals(expected, cache.load(program).toString());
+        Assertions.assertTrue(cache.wasCached());
+
+        Path file = directory.resolve("program.tran");
+        Files.writeString(file, program);
+        Assertions.assertEquals(expected, cache.load(file).toString());
+        Assertions.assertTrue(cache.wasCached());
+
+        Assertions.assertEquals(parse(program + "class other\n    number x\n").toString(), cache.load(program + "class other\n    number x\n").toString());
+        Assertions.assertFalse(cache.wasCached());
+    }
+
+    @Test
+    public void DamagedFileTest(@TempDir Path directory) throws Exception {
+        var cache = new AstCache(directory);
+        String expected = cache.load(program).toString();
+        Path file;
+        try (var files = Files.list(directory)) {
+            file = files.filter(p -> p.toString().endsWith(".ast")).findFirst().orElseThrow();
+        }
+        byte[] good = Files.readAllBytes(file);
+
+        byte[] flipped = good.clone();
+        flipped[good.length / 2] ^= 1;
+        byte[] otherVersion = good.clone();
+        otherVersion[7]++;
+        for (byte[] damaged : new byte[][]{flipped, otherVersion, Arrays.copyOf(good, good.length - 3), new byte[0]}) {
+            Files.write(file, damaged);
+            Assertions.assertEquals(expected, cache.load(program).toString());
+            Assertions.assertFalse(cache.wasCached());
+            //Parsing again put a good file back
+            Assertions.assertArrayEquals(good, Files.readAllBytes(file));
+            Assertions.assertEquals(expected, cache.load(program).toString());
+            Assertions.assertTrue(cache.wasCached());
+        }
+    }
+
+    @Test
+    public void LongChainTest(@TempDir Path directory) throws Exception {
+        //Deeper than the stack would allow if each operator took a call to write and to read
+        String chain = "class sum\n    total() : number x\n        x = 1" + " + 1".repeat(20_000) + "\n";
+        var cache = new AstCache(directory);
+        cache.load(chain);
+        Assertions.assertFalse(cache.wasCached());
+        TranNode top = cache.load(chain);
+        Assertions.assertTrue(cache.wasCached());
+
+        var assignment = (AssignmentNode) top.Classes.getFirst().methods.getFirst().statements.getFirst();
+        int terms = 1;
+        ExpressionNode e = assignment.expression;
+        while (e instanceof MathOpNode m) {
+            Assertions.assertEquals(MathOpNode.MathOperations.add, m.op);
+            Assertions.assertEquals(1, ((NumericLiteralNode) m.right).value);
+            e = m.left;
+            terms++;
+        }
+        Assertions.assertEquals(20_001, terms);
+        Assertions.assertEquals(1, ((NumericLiteralNode) e).value);
+    }
+}
@@ -0,0 +1,91 @@
+package Tests;
+
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+import java.util.List;
+
+public class CallLinkTests {
+
+    private static final String program = """
+            class tally
+                number count
+
+                construct()
+                    count = 1
+
+                add()
+                    number x
+                    count = count + 1
+
+                report()
+                    number x
+                    console.write("count ", count)
+
+                unused()
+                    number x
+                    count = 0
+                    report()
+
+                shared make() : tally t
+                    tally made
+                    made = new tally()
+
+                shared start()
+                    tally t
+                    t = new tally()
+                    t.add()
+                    t.add()
+                    t.report()
+                    tally.make()
+            """;
+
+    private static TranNode parse(boolean lazy) throws Exception {
+        TranNode top = new TranNode();
+        var parser = new Parser(top, new Lexer(program).Lex());
+        parser.setLazyMethodBodies(lazy);
+        parser.Tran();
+        return top;
+    }
+
+    private static MethodDeclarationNode method(ClassNode c, String name) {
+        return c.methods.stream().filter(m -> m.name.equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void CallsLinkedTest() throws Exception {
+        TranNode top = parse(false);
+        Assertions.assertEquals("count 3.0\n", ConsoleOutput.start(top));
+
+        ClassNode tally = top.Classes.getFirst();
+        List<StatementNode> start = method(tally, "start").statements;
+        var add = (MethodCallStatementNode) start.get(1);
+        Assertions.assertSame(method(tally, "add"), add.target.named);
+        Assertions.assertFalse(add.target.onClass);
+        Assertions.assertSame(add.target.named, ((MethodCallStatementNode) start.get(2)).target.named);
+        var make = (MethodCallStatementNode) start.get(4);
+        Assertions.assertSame(method(tally, "make"), make.target.named);
+        Assertions.assertTrue(make.target.onClass);
+
+        //Calls are linked before the program starts, whether they run or not
+        var report = (MethodCallStatementNode) method(tally, "unused").statements.get(1);
+        Assertions.assertSame(method(tally, "report"), report.target.named);
+        Assertions.assertNull(report.target.selfClass);
+        var write = (MethodCallStatementNode) method(tally, "report").statements.getFirst();
+        Assertions.assertInstanceOf(BuiltInMethodDeclarationNode.class, write.target.named);
+        Assertions.assertTrue(write.target.onClass);
+    }
+
+    @Test
+    public void LateBodiesLinkedTest() throws Exception {
+        TranNode top = parse(true);
+        Assertions.assertEquals("count 3.0\n", ConsoleOutput.start(top));
+
+        ClassNode tally = top.Classes.getFirst();
+        Assertions.assertNotNull(method(tally, "unused").unparsedBody);
+        var write = (MethodCallStatementNode) method(tally, "report").statements.getFirst();
+        Assertions.assertNotNull(write.target);
+        Assertions.assertSame(method(tally, "add"), ((MethodCallStatementNode) method(tally, "start").statements.get(1)).target.named);
+    }
+}
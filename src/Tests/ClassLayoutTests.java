@@ -0,0 +1,186 @@
+package Tests;
+
+import AST.*;
+import Interpreter.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+public class ClassLayoutTests {
+
+    private static TranNode parse(String program) throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(program).Lex()).Tran();
+        return top;
+    }
+
+    @Test
+    public void OffsetsTest() throws Exception {
+        ClassNode c = parse("""
+                class record
+                    number a
+                    string b
+                    number a
+                    boolean c
+                """).Classes.getFirst();
+        var layout = new ClassLayout(c);
+        Assertions.assertEquals(3, layout.size());
+        Assertions.assertArrayEquals(new String[]{"a", "b", "c"}, layout.names);
+        Assertions.assertEquals(0, layout.offset(SymbolTable.intern("a")));
+        Assertions.assertEquals(2, layout.offset(SymbolTable.intern("c")));
+        Assertions.assertEquals(-1, layout.offset(SymbolTable.intern("record")));
+        Assertions.assertArrayEquals(new int[]{ClassLayout.NUMBER, ClassLayout.STRING, ClassLayout.BOOLEAN}, layout.kinds);
+        Assertions.assertArrayEquals(new int[]{0, 0, 1}, layout.indexes);
+        Assertions.assertEquals(2, layout.primitives);
+        Assertions.assertEquals(1, layout.references);
+    }
+
+    @Test
+    public void MembersLinkedTest() throws Exception {
+        //square.describe() runs circle's describe(), the last one in the program, where label is at another offset
+        TranNode top = parse("""
+                class square
+                    number side
+                    string label
+
+                    construct()
+                        side = 2
+                        label = "square"
+
+                    describe()
+                        console.write(label, " ", side)
+
+                    shared start()
+                        square sq
+                        circle ci
+                        ci = new circle()
+                        ci.describe()
+                        sq = new square()
+                        sq.describe()
+
+                class circle
+                    string label
+
+                    construct()
+                        label = "circle"
+
+                    describe()
+                        console.write(label)
+                """);
+        Assertions.assertEquals("circle\nsquare\n", ConsoleOutput.start(top));
+
+        ClassNode square = top.Classes.getFirst();
+        var write = (MethodCallStatementNode) square.methods.getFirst().statements.getFirst();
+        var label = (VariableReferenceNode) write.parameters.getFirst();
+        Assertions.assertSame(square, label.memberOf);
+        Assertions.assertEquals(1, label.member);
+        Assertions.assertEquals(-1, label.slot);
+        var side = (AssignmentNode) square.constructors.getFirst().statements.getFirst();
+        Assertions.assertEquals(0, side.target.member);
+    }
+
+    @Test
+    public void UnboxedMembersTest() throws Exception {
+        TranNode top = parse("""
+                class student
+                    number gradea
+                    number gradeb
+                    number gradec
+                    string firstname
+                    string lastname
+
+                class point
+                    number x
+                    boolean seen
+                    character tag
+                """);
+        var student = new ObjectIDT(new ClassLayout(top.Classes.getFirst()));
+        Assertions.assertEquals("0.0", student.value(0).toString());
+        Assertions.assertEquals("", student.value(3).toString());
+
+        student.set(1, new NumberIDT(87.5f));
+        student.set(4, new StringIDT("phipps"));
+        Assertions.assertEquals(87.5f, ((NumberIDT) student.value(1)).Value);
+        Assertions.assertEquals(87.5f, student.number(1));
+        Assertions.assertEquals("phipps", ((StringIDT) student.value(4)).Value);
+        //A value is a copy, while what get() gives stays the member, boxed from then on
+        student.value(1).Assign(new NumberIDT(5));
+        Assertions.assertEquals(87.5f, student.number(1));
+        Assertions.assertSame(student.get(1), student.get(1));
+        student.get(1).Assign(new NumberIDT(1));
+        Assertions.assertEquals(1f, student.number(1));
+        student.set(1, new NumberIDT(2));
+        Assertions.assertEquals(2f, ((NumberIDT) student.get(1)).Value);
+        Assertions.assertEquals(2f, ((NumberIDT) student.value(1)).Value);
+        Assertions.assertNotSame(student.get(1), student.value(1));
+        RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> student.set(0, new StringIDT("A")));
+        Assertions.assertEquals("Trying to assign to a number IDT from a " + StringIDT.class, e.getMessage());
+        e = Assertions.assertThrows(RuntimeException.class, () -> student.set(3, new NumberIDT(1)));
+        Assertions.assertEquals("Trying to assign to a string IDT from a " + NumberIDT.class, e.getMessage());
+
+        //Only numbers, booleans and characters: nothing but the object and one array
+        var layout = new ClassLayout(top.Classes.get(1));
+        Assertions.assertEquals(3, layout.primitives);
+        Assertions.assertEquals(0, layout.references);
+        var point = new ObjectIDT(layout);
+        point.set(1, new BooleanIDT(true));
+        point.set(2, new CharIDT('p'));
+        Assertions.assertTrue(point.bool(1));
+        Assertions.assertEquals("x : 0.0\nseen : true\ntag : p\n", point.toString());
+    }
+
+    @Test
+    public void MemberArgumentTest() throws Exception {
+        //A member passed to a method is changed by it, as a local is
+        String program = """
+                class main
+                    number m
+
+                    bump(number x)
+                        number x
+                        x = x + 10
+
+                    run()
+                        number l
+                        l = 1
+                        m = 1
+                        bump(l)
+                        bump(m)
+                        console.write(l, " ", m)
+
+                    shared start()
+                        main o
+                        o = new main()
+                        o.run()
+                """;
+        Assertions.assertEquals("11.0 11.0\n", ConsoleOutput.start(parse(program)));
+        Assertions.assertEquals("11.0 11.0\n", ConsoleOutput.of(() -> CompiledProgram.compile(program).start()));
+    }
+
+    @Test
+    public void LoopVariableMemberTest() throws Exception {
+        //A loop over a member sets its variable to the member, so assigning to the variable ends the loop
+        String program = """
+                class main
+                    boolean go
+                    boolean stop
+                    number n
+
+                    run()
+                        loop t = n < 1
+                            n = n + 1
+                            go = t
+                        loop v = go
+                            n = n + 1
+                            v = stop
+                        console.write(n, " ", go)
+
+                    shared start()
+                        main o
+                        o = new main()
+                        o.run()
+                """;
+        Assertions.assertEquals("2.0 false\n", ConsoleOutput.start(parse(program)));
+        Assertions.assertEquals("2.0 false\n", ConsoleOutput.of(() -> CompiledProgram.compile(program).start()));
+    }
+}
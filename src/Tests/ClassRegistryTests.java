@@ -0,0 +1,107 @@
+package Tests;
+
+import AST.*;
+import Interpreter.ClassRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+public class ClassRegistryTests {
+
+    private static final String program = """
+            interface shape
+                area() : number a
+
+            interface named
+                name() : string n
+
+            class square implements shape, named
+                number side
+                string label
+
+                construct(number s)
+                    side = s
+
+                area() : number a
+                    a = side * side
+
+                scale(number by)
+                    side = side * by
+
+                scale(string by)
+                    label = by
+
+            class circle implements shape
+                number radius
+
+                area() : number a
+                    a = radius * 3
+            """;
+
+    private static TranNode parse() throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(program).Lex()).Tran();
+        return top;
+    }
+
+    @Test
+    public void LookupTest() throws Exception {
+        TranNode top = parse();
+        ClassRegistry registry = new ClassRegistry(top);
+        ClassNode square = top.Classes.getFirst();
+
+        Assertions.assertSame(square, registry.classNamed(SymbolTable.intern("square")).node);
+        Assertions.assertNull(registry.classNamed(SymbolTable.intern("triangle")));
+        Assertions.assertSame(top.Interfaces.get(1), registry.interfaceNamed(SymbolTable.intern("named")));
+        Assertions.assertNull(registry.interfaceNamed(SymbolTable.intern("square")));
+
+        ClassRegistry.ClassInfo info = registry.info(square);
+        int scale = SymbolTable.intern("scale");
+        Assertions.assertEquals(2, info.methods(scale).size());
+        Assertions.assertSame(info.methods(scale).getFirst(), info.method(scale));
+        Assertions.assertNull(info.method(SymbolTable.intern("radius")));
+        Assertions.assertTrue(info.methods(SymbolTable.intern("nothing")).isEmpty());
+        Assertions.assertSame(square.members.get(1), info.member(SymbolTable.intern("label")));
+        Assertions.assertTrue(info.implementsInterface(SymbolTable.intern("named")));
+        Assertions.assertFalse(registry.info(top.Classes.get(1)).implementsInterface(SymbolTable.intern("named")));
+
+        Assertions.assertEquals(2, registry.methodsNamed(SymbolTable.intern("area")).size());
+        Assertions.assertTrue(registry.isMemberName(SymbolTable.intern("radius")));
+        Assertions.assertFalse(registry.isMemberName(SymbolTable.intern("area")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> registry.info(new ClassNode()));
+    }
+
+    @Test
+    public void InterpreterUsesRegistryTest() throws Exception {
+        String program = """
+                class holder
+                    shape held
+
+                    construct(shape s)
+                        held = s
+
+                    shared start()
+                        square sq
+                        holder h
+                        sq = new square(3)
+                        h = new holder(sq)
+                        console.write(sq.area())
+
+                interface shape
+                    area() : number a
+
+                class square implements shape
+                    number side
+
+                    construct(number s)
+                        side = s
+
+                    area() : number a
+                        a = side * side
+                """;
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(program).Lex()).Tran();
+        //The square is passed to the constructor as the interface it implements, found in the registry
+        Assertions.assertEquals("9.0\n", ConsoleOutput.start(top));
+    }
+}
@@ -0,0 +1,55 @@
+package Tests;
+
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompileSessionTests {
+
+    private static final String[] scripts = {
+            "class first\n    number x\n    start()\n        x = 1 + 2 * 3\n",
+            "interface shape\n    area() : number a\nclass square implements shape\n    number side\n    area() : number a\n        a = side * side\n",
+            "class third {with a comment}\n    string s\n    start()\n        s = \"hello\"\n        if s == \"hello\"\n            console.write(s)\n",
+            "class small\n    number n\n",
+    };
+
+    private static TranNode parseFresh(String script) throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(script).Lex()).Tran();
+        return top;
+    }
+
+    @Test
+    public void SameAsFreshTest() throws Exception {
+        CompileSession session = new CompileSession();
+        for (int round = 0; round < 3; round++) {
+            for (String script : scripts) {
+                Assertions.assertEquals(new Lexer(script).Lex(), session.reset(script).lex());
+                Assertions.assertEquals(parseFresh(script).toString(), session.parse().toString());
+            }
+        }
+    }
+
+    @Test
+    public void EarlierResultsStayValidTest() throws Exception {
+        CompileSession session = new CompileSession();
+        List<Token> kept = new ArrayList<>(session.reset(scripts[0]).lex());
+        TranNode first = session.parse();
+        String firstTree = first.toString();
+        session.compile(scripts[1]);
+        Assertions.assertEquals(new Lexer(scripts[0]).Lex(), kept);
+        Assertions.assertEquals(firstTree, first.toString());
+    }
+
+    @Test
+    public void RecoversAfterErrorTest() throws Exception {
+        CompileSession session = new CompileSession();
+        Assertions.assertThrows(SyntaxErrorException.class, () -> session.compile("class broken\n    number x = \"unterminated\n"));
+        Assertions.assertThrows(SyntaxErrorException.class, () -> session.compile("class x implements\n"));
+        Assertions.assertEquals(parseFresh(scripts[1]).toString(), session.compile(scripts[1]).toString());
+    }
+}
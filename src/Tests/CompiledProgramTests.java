@@ -0,0 +1,242 @@
+package Tests;
+
+import AST.TranNode;
+import Interpreter.CompiledProgram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+public class CompiledProgramTests {
+
+    private static String compiled(String program) throws Exception {
+        return ConsoleOutput.of(() -> CompiledProgram.compile(program).start());
+    }
+
+    private static String interpreted(String program) throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(program).Lex()).Tran();
+        return ConsoleOutput.start(top);
+    }
+
+    @Test
+    public void SameAsInterpreterTest() throws Exception {
+        String student = """
+                class student
+                    number gradea
+                    number gradeb
+                    string firstname
+
+                    construct (string fname, number ga, number gb)
+                        firstname = fname
+                        gradea = ga
+                        gradeb = gb
+
+                    getAverage() : number avg
+                        avg = (gradea + gradeb) / 2
+
+                    print()
+                        console.write(firstname, " ", getAverage())
+
+                    shared start()
+                        student sa
+                        student sb
+                        sa = new student("michael", 100, 99)
+                        sb = new student("tom", 80, 75)
+                        sa.print()
+                        sb.print()
+                """;
+        String add = """
+                class SimpleAdd
+                    number x
+                    number y
+
+                    construct()
+                        x = 6
+                        y = 6
+
+                    add()
+                        number z
+                        z = x + y
+                        if z > 10
+                            console.write("big ", z)
+                        else
+                            console.write("small ", z)
+
+                    shared start()
+                        SimpleAdd t
+                        t = new SimpleAdd()
+                        t.add()
+                """;
+        for (String program : new String[]{student, add}) {
+            String expected = interpreted(program);
+            Assertions.assertFalse(expected.isEmpty());
+            Assertions.assertEquals(expected, compiled(program));
+        }
+    }
+
+    @Test
+    public void LoopTest() throws Exception {
+        String program = """
+                class counter
+                    shared start()
+                        number n
+                        n = 0
+                        loop n < 3
+                            n = n + 1
+                            console.write(n)
+                """;
+        Assertions.assertEquals("1.0\n2.0\n3.0\n", compiled(program));
+    }
+
+    @Test
+    public void LoopsSameAsInterpreterTest() throws Exception {
+        //A loop variable that wasn't declared still holds the last value of the condition
+        String undeclared = """
+                class counter
+                    shared start()
+                        number n
+                        n = 0
+                        loop more = n < 2
+                            n = n + 1
+                        console.write(n, " ", more)
+                """;
+        //In an object of a class that implements iterator a loop first goes through getNext(), then loops on its
+        //condition. Tran has no boolean literals, so the constructor keeps a true from a loop variable, and its own
+        //loop calls getNext() once as well.
+        String iterator = """
+                interface iterator
+                    getNext() : boolean more, number value
+
+                class range implements iterator
+                    number at
+                    number last
+                    boolean yes
+                    boolean no
+
+                    construct(number l)
+                        number once
+                        last = l
+                        once = 0
+                        loop t = once < 1
+                            yes = t
+                            once = 1
+
+                    getNext() : boolean more, number value
+                        more = no
+                        if at < last
+                            more = yes
+                        at = at + 1
+                        value = at * 10
+
+                    list()
+                        number v
+                        loop v = at < 6
+                            console.write(v)
+                            at = at + 1
+                        console.write(at)
+
+                    shared start()
+                        range r
+                        r = new range(3)
+                        r.list()
+                """;
+        Assertions.assertEquals("2.0 true\n", interpreted(undeclared));
+        Assertions.assertEquals("20.0\ntrue\ntrue\n6.0\n", interpreted(iterator));
+        for (String program : new String[]{undeclared, iterator})
+            Assertions.assertEquals(interpreted(program), compiled(program));
+    }
+
+    @Test
+    public void ParametersAndReturnsSameAsInterpreterTest() throws Exception {
+        //The values passed go in the method's locals in order, a call hands back the locals and then the returns, and
+        //the variables on the left of a call are left as they are
+        String program = """
+                class calc
+                    number m
+
+                    scale(number factor) : number result
+                        number f
+                        number unused
+                        result = f * 2
+                        m = f + m
+
+                    pair(number a, number b) : number sum
+                        number x
+                        number y
+                        sum = x + y
+
+                    run()
+                        number h
+                        number s
+                        h = 1
+                        h = scale(5)
+                        console.write(h, " ", m)
+                        h, s = pair(3, 4)
+                        console.write(h, " ", s, " ", pair(3, 4))
+
+                    shared start()
+                        calc c
+                        c = new calc()
+                        c.run()
+                """;
+        //A shared method has no object to find a method without an object name in
+        String shared = """
+                class calc
+                    shared show(number x)
+                        console.write(x)
+
+                    shared start()
+                        number y
+                        y = 5
+                        show(y)
+                """;
+        Assertions.assertEquals("1.0 5.0\n1.0 0.0 3.0\n", interpreted(program));
+        Assertions.assertEquals(interpreted(program), compiled(program));
+        RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> interpreted(shared));
+        Assertions.assertEquals(e.getMessage(), Assertions.assertThrows(RuntimeException.class, () -> compiled(shared)).getMessage());
+    }
+
+    @Test
+    public void LinkedOnFirstCallTest() throws Exception {
+        //The classes and the methods are only declared after the code that uses them. s.describe() runs the describe()
+        //declared last, as in Interpreter, and the call to name() in it sees objects of two classes.
+        String program = """
+                class main
+                    shared start()
+                        shape s
+                        s = new square(2)
+                        s.describe()
+                        s = new circle()
+                        s.describe()
+
+                interface shape
+                    describe()
+
+                class square implements shape
+                    number side
+                    construct(number x)
+                        side = x
+                    name() : string n
+                        n = "square"
+                    describe()
+                        console.write("not run")
+
+                class circle implements shape
+                    name() : string n
+                        n = "circle"
+                    describe()
+                        console.write(name())
+                """;
+        Assertions.assertEquals("square\ncircle\n", compiled(program));
+        Assertions.assertEquals(interpreted(program), compiled(program));
+    }
+
+    @Test
+    public void ErrorsTest() {
+        Assertions.assertThrows(SyntaxErrorException.class, () -> CompiledProgram.compile("class broken\n    start(\n"));
+        RuntimeException e = Assertions.assertThrows(RuntimeException.class,
+                () -> compiled("class lost\n    shared start()\n        console.write(missing)\n"));
+        Assertions.assertEquals("Unable to find variable missing", e.getMessage());
+        Assertions.assertThrows(RuntimeException.class, () -> compiled("class nothing\n    go()\n        number x\n"));
+    }
+}
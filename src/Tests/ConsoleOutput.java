@@ -0,0 +1,35 @@
+package Tests;
+
+import AST.TranNode;
+import Interpreter.Interpreter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+//What a program writes to the console, for tests that check what it prints
+final class ConsoleOutput {
+
+    interface Program {
+        void start() throws Exception;
+    }
+
+    private ConsoleOutput() {
+    }
+
+    static String of(Program program) throws Exception {
+        PrintStream out = System.out;
+        var captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured));
+        try {
+            program.start();
+        } finally {
+            System.setOut(out);
+        }
+        return captured.toString();
+    }
+
+    //Runs a parsed program with the Interpreter
+    static String start(TranNode top) throws Exception {
+        return of(() -> new Interpreter(top).start());
+    }
+}
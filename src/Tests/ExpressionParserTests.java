@@ -0,0 +1,58 @@
+package Tests;
+
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+public class ExpressionParserTests {
+
+    private static ExpressionNode parseAssignment(String expression) throws Exception {
+        String program = "class test\n    start()\n        number x\n        x = " + expression + "\n";
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(program).Lex()).Tran();
+        return ((AssignmentNode) top.Classes.getFirst().methods.getFirst().statements.getFirst()).expression;
+    }
+
+    //Writes the tree out with every operation in parentheses, so its shape can be checked
+    private static String shape(ExpressionNode node) {
+        if (node instanceof MathOpNode math)
+            return "(" + shape(math.left) + " " + math.op + " " + shape(math.right) + ")";
+        return node.toString();
+    }
+
+    @Test
+    public void LeftAssociativeTest() throws Exception {
+        Assertions.assertEquals("((a subtract b) subtract c)", shape(parseAssignment("a - b - c")));
+        Assertions.assertEquals("((a divide b) multiply c)", shape(parseAssignment("a / b * c")));
+        Assertions.assertEquals("((a add (b multiply c)) subtract (d modulo e))", shape(parseAssignment("a + b * c - d % e")));
+        Assertions.assertEquals("(a multiply (b subtract c))", shape(parseAssignment("a * (b - c)")));
+        Assertions.assertEquals("x", shape(parseAssignment("x")));
+    }
+
+    @Test
+    public void LongChainTest() throws Exception {
+        int terms = 200_000;
+        StringBuilder expression = new StringBuilder("0");
+        for (int i = 1; i < terms; i++)
+            expression.append(i % 2 == 0 ? " + " : " * ").append(i % 10);
+
+        //Walk down the left edge without recursion: the multiplications group under the additions
+        ExpressionNode node = parseAssignment(expression.toString());
+        int additions = 0;
+        while (node instanceof MathOpNode math && math.op == MathOpNode.MathOperations.add) {
+            Assertions.assertInstanceOf(MathOpNode.class, math.right);
+            additions++;
+            node = math.left;
+        }
+        Assertions.assertEquals((terms - 1) / 2, additions);
+    }
+
+    @Test
+    public void MissingOperandTest() {
+        var plus = Assertions.assertThrows(SyntaxErrorException.class, () -> parseAssignment("a + b + )"));
+        Assertions.assertTrue(plus.getMessage().contains("Expression expected"));
+        var times = Assertions.assertThrows(SyntaxErrorException.class, () -> parseAssignment("a + b * )"));
+        Assertions.assertTrue(times.getMessage().contains("Term expected"));
+    }
+}
@@ -0,0 +1,149 @@
+package Tests;
+
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import static AST.FlatTree.*;
+
+public class FlatTreeTests {
+
+    private static final String program = """
+            interface shape
+                area() : number a
+            class square implements shape
+                number side = 2.5
+                construct(number s)
+                    side = s
+                area() : number a
+                    a = side * side + 1
+                private name() : string s
+                    character c
+                    c = 'q'
+                    s = "a square"
+                    if side >= 10
+                        s = "a big square"
+                    else
+                        console.write(s)
+                    loop i = side.times()
+                        a, s = other.both(i, true)
+                shared start()
+                    square sq
+                    sq = new square(3)
+            """;
+
+    private static TranNode parse(String text) throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(text).Lex()).Tran();
+        return top;
+    }
+
+    private static String name(FlatTree tree, int node) {
+        return SymbolTable.name(tree.name(node));
+    }
+
+    @Test
+    public void LayoutTest() throws Exception {
+        TranNode parsed = parse(program);
+        //The parser has no "and" or "not" yet, so the if's condition is given one by hand
+        IfNode parsedIf = (IfNode) parsed.Classes.getFirst().methods.get(1).statements.get(2);
+        var and = new BooleanOpNode();
+        and.op = BooleanOpNode.BooleanOperations.and;
+        and.left = parsedIf.condition;
+        var not = new NotOpNode();
+        not.left = new BooleanLiteralNode(false);
+        and.right = not;
+        parsedIf.condition = and;
+        FlatTree tree = FlatTree.of(parsed);
+        int top = tree.root();
+        Assertions.assertEquals(TOP, tree.kind(top));
+
+        int shape = tree.get(tree.field(top, 0), 0);
+        Assertions.assertEquals(INTERFACE, tree.kind(shape));
+        Assertions.assertEquals("shape", name(tree, shape));
+        int header = tree.get(tree.field(shape, 1), 0);
+        Assertions.assertEquals("area", name(tree, header));
+        Assertions.assertEquals(0, tree.size(tree.field(header, 1)));
+        Assertions.assertEquals("a", name(tree, tree.get(tree.field(header, 2), 0)));
+
+        int square = tree.get(tree.field(top, 1), 0);
+        Assertions.assertEquals(CLASS, tree.kind(square));
+        Assertions.assertEquals("square", name(tree, square));
+        Assertions.assertEquals("shape", SymbolTable.name(tree.get(tree.field(square, 1), 0)));
+        int side = tree.get(tree.field(square, 4), 0);
+        Assertions.assertEquals(VARIABLE, tree.kind(side));
+        Assertions.assertEquals("number", SymbolTable.name(tree.field(side, 1)));
+        Assertions.assertEquals(2.5f, tree.number(tree.field(side, 2)));
+
+        int construct = tree.get(tree.field(square, 2), 0);
+        Assertions.assertEquals(CONSTRUCTOR, tree.kind(construct));
+        int assignment = tree.get(tree.field(construct, 4), 0);
+        Assertions.assertEquals(ASSIGNMENT, tree.kind(assignment));
+        Assertions.assertEquals("side", name(tree, tree.field(assignment, 0)));
+        Assertions.assertEquals("s", name(tree, tree.field(assignment, 1)));
+
+        int methods = tree.field(square, 3);
+        Assertions.assertEquals(3, tree.size(methods));
+        int area = tree.get(methods, 0);
+        Assertions.assertEquals(0, tree.field(area, 5));
+        int sum = tree.field(tree.get(tree.field(area, 4), 0), 1); //(side * side) + 1
+        Assertions.assertEquals(MATH, tree.kind(sum));
+        Assertions.assertEquals(MathOpNode.MathOperations.add.ordinal(), tree.op(sum));
+        Assertions.assertEquals(MathOpNode.MathOperations.multiply.ordinal(), tree.op(tree.left(sum)));
+        Assertions.assertEquals(1f, tree.number(tree.right(sum)));
+
+        int nameMethod = tree.get(methods, 1);
+        Assertions.assertEquals(PRIVATE, tree.field(nameMethod, 5));
+        int statements = tree.field(nameMethod, 4);
+        Assertions.assertEquals('q', tree.character(tree.field(tree.get(statements, 0), 1)));
+        Assertions.assertEquals("a square", tree.string(tree.field(tree.get(statements, 1), 1)));
+
+        int ifNode = tree.get(statements, 2);
+        Assertions.assertEquals(IF, tree.kind(ifNode));
+        int condition = tree.field(ifNode, 0);
+        Assertions.assertEquals(BOOLEAN_OP, tree.kind(condition));
+        Assertions.assertEquals(COMPARE, tree.kind(tree.left(condition)));
+        Assertions.assertEquals(CompareNode.CompareOperations.ge.ordinal(), tree.op(tree.left(condition)));
+        Assertions.assertEquals(NOT, tree.kind(tree.right(condition)));
+        Assertions.assertEquals("a big square", tree.string(tree.field(tree.get(tree.field(ifNode, 1), 0), 1)));
+        int write = tree.get(tree.field(ifNode, 2), 0);
+        Assertions.assertEquals(CALL, tree.kind(write));
+        Assertions.assertEquals("write", name(tree, write));
+        Assertions.assertEquals("console", SymbolTable.name(tree.field(write, 1)));
+
+        int loop = tree.get(statements, 3);
+        Assertions.assertEquals(LOOP, tree.kind(loop));
+        Assertions.assertEquals(CALL_EXPRESSION, tree.kind(tree.field(loop, 0)));
+        Assertions.assertEquals("i", name(tree, tree.field(loop, 2)));
+        int both = tree.get(tree.field(loop, 1), 0);
+        Assertions.assertEquals(2, tree.size(tree.field(both, 3)));
+        Assertions.assertTrue(tree.bool(tree.get(tree.field(both, 2), 1)));
+
+        int start = tree.get(methods, 2);
+        Assertions.assertEquals(SHARED, tree.field(start, 5));
+        int newNode = tree.field(tree.get(tree.field(start, 4), 0), 1);
+        Assertions.assertEquals(NEW, tree.kind(newNode));
+        Assertions.assertEquals("square", name(tree, newNode));
+        Assertions.assertEquals(FlatTree.NONE, tree.field(tree.get(tree.field(start, 3), 0), 2));
+    }
+
+    @Test
+    public void LongExpressionTest() throws Exception {
+        int terms = 100_000;
+        var source = new StringBuilder("class long\n    sum() : number a\n        a = 0");
+        for (int i = 1; i < terms; i++)
+            source.append(" + ").append(i);
+        FlatTree tree = FlatTree.of(parse(source.append('\n').toString()));
+
+        int sum = tree.get(tree.field(tree.get(tree.field(tree.root(), 1), 0), 3), 0);
+        int expression = tree.field(tree.get(tree.field(sum, 4), 0), 1);
+        for (int i = terms - 1; i > 0; i--) {
+            Assertions.assertEquals(MATH, tree.kind(expression));
+            Assertions.assertEquals(i, tree.number(tree.right(expression)));
+            expression = tree.left(expression);
+        }
+        Assertions.assertEquals(0f, tree.number(expression));
+        Assertions.assertTrue(tree.bytes() < terms * 6 * 4 + 4096);
+    }
+}
@@ -0,0 +1,78 @@
+package Tests;
+
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+public class FrameLayoutTests {
+
+    private static final String program = """
+            class counter
+                number total
+                number more
+
+                construct(number first)
+                    number step
+                    step = 2
+                    total = first + step
+
+                report()
+                    number total
+                    total = 5
+                    console.write(total, " ", more)
+
+                shared start()
+                    counter c
+                    number n
+                    c = new counter(1)
+                    c.report()
+                    n = 0
+                    loop more = n < 2
+                        n = n + 1
+                    console.write(n, " ", more)
+            """;
+
+    private static MethodDeclarationNode method(ClassNode c, String name) {
+        return c.methods.stream().filter(m -> m.name.equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void SlotsTest() throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(program).Lex()).Tran();
+        //The local total hides the member, more is only a member in report() and only a loop variable in start()
+        Assertions.assertEquals("5.0 0.0\n2.0 true\n", ConsoleOutput.start(top));
+
+        ClassNode counter = top.Classes.getFirst();
+        FrameLayout constructor = counter.constructors.getFirst().frame;
+        Assertions.assertEquals(2, constructor.size);
+        Assertions.assertArrayEquals(new int[]{0}, constructor.locals);
+        Assertions.assertArrayEquals(new int[]{1}, constructor.parameters);
+        var total = (AssignmentNode) counter.constructors.getFirst().statements.get(1);
+        Assertions.assertEquals(-1, total.target.slot);
+        Assertions.assertEquals(1, ((VariableReferenceNode) ((MathOpNode) total.expression).left).slot);
+
+        MethodDeclarationNode report = method(counter, "report");
+        Assertions.assertEquals(1, report.frame.size);
+        var write = (MethodCallStatementNode) report.statements.get(1);
+        Assertions.assertEquals(0, ((VariableReferenceNode) write.parameters.getFirst()).slot);
+        Assertions.assertEquals(-1, ((VariableReferenceNode) write.parameters.getLast()).slot);
+
+        MethodDeclarationNode start = method(counter, "start");
+        Assertions.assertEquals(3, start.frame.size);
+        Assertions.assertEquals(0, ((MethodCallStatementNode) start.statements.get(1)).target.objectSlot);
+        var loop = (LoopNode) start.statements.get(3);
+        Assertions.assertEquals(2, loop.assignment.orElseThrow().slot);
+    }
+
+    @Test
+    public void LateBodiesTest() throws Exception {
+        TranNode top = new TranNode();
+        var parser = new Parser(top, new Lexer(program).Lex());
+        parser.setLazyMethodBodies(true);
+        parser.Tran();
+        Assertions.assertEquals("5.0 0.0\n2.0 true\n", ConsoleOutput.start(top));
+        Assertions.assertEquals(1, method(top.Classes.getFirst(), "report").frame.size);
+    }
+}
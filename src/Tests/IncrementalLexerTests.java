@@ -0,0 +1,128 @@
+package Tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.util.List;
+import java.util.Random;
+
+public class IncrementalLexerTests {
+
+    private static final String program = """
+            class Tran implements someInterface
+                number x
+                string s = "a string { not a comment"
+                { a comment
+                  across lines }
+                construct()
+                    x = 10
+                helloWorld() : number y
+                    loop x.times()
+                        if x > 5
+                            y = y + 'c'
+
+                        else
+                            console.write(s)
+                    y = 3.5
+
+            interface someInterface
+                doIt()
+            """;
+
+    private static List<Token> fullLex(String text) throws Exception {
+        return new Lexer(text).Lex();
+    }
+
+    @Test
+    public void EditInsideLineTest() throws Exception {
+        var lexer = new IncrementalLexer(program);
+        Assertions.assertEquals(fullLex(program), lexer.getTokens());
+
+        int at = program.indexOf("x = 10") + 4;
+        var tokens = lexer.replace(at, at + 2, "20 + x");
+        Assertions.assertEquals(fullLex(lexer.getText()), tokens);
+        Assertions.assertTrue(lexer.getRelexedTokens() < 10);
+    }
+
+    @Test
+    public void IndentationChangeTest() throws Exception {
+        var lexer = new IncrementalLexer(program);
+        int at = program.indexOf("            console.write");
+        lexer.replace(at, at + 4, "");
+        Assertions.assertEquals(fullLex(lexer.getText()), lexer.getTokens());
+        lexer.replace(at, at, "\n\n    ");
+        Assertions.assertEquals(fullLex(lexer.getText()), lexer.getTokens());
+    }
+
+    @Test
+    public void BrokenEditTest() throws Exception {
+        var lexer = new IncrementalLexer(program);
+        int at = program.indexOf("{ a comment");
+        Assertions.assertThrows(SyntaxErrorException.class, () -> lexer.replace(at, at + 1, "\""));
+        lexer.replace(at, at + 1, "{");
+        Assertions.assertEquals(program, lexer.getText());
+        Assertions.assertEquals(fullLex(program), lexer.getTokens());
+    }
+
+    @Test
+    public void LargeTextTest() throws Exception {
+        var text = new StringBuilder();
+        for (int i = 0; i < 5000; i++)
+            text.append("class c").append(i).append("\n    number x\n    m() : number r\n        r = x * 2 + ").append(i).append('\n');
+        var lexer = new IncrementalLexer(text.toString());
+        //However long the text, an edit only lexes around itself. Moving the rest along is copying, not lexing.
+        for (int at : new int[]{text.indexOf("x * 2"), text.indexOf("x * 2", text.length() / 2), text.lastIndexOf("x * 2")}) {
+            lexer.replace(at, at + 1, "y + x");
+            Assertions.assertTrue(lexer.getRelexedTokens() < 20);
+            lexer.replace(at, at + 5, "x");
+            Assertions.assertTrue(lexer.getRelexedTokens() < 20);
+        }
+        Assertions.assertEquals(fullLex(text.toString()), lexer.getTokens());
+    }
+
+    @Test
+    public void TokensKeepTheirTextTest() throws Exception {
+        var lexer = new IncrementalLexer(program);
+        int at = program.indexOf("helloWorld");
+        int index = 0;
+        while (!"helloWorld".equals(lexer.getTokens().get(index).getValue()))
+            index++;
+        Token before = lexer.getTokens().get(index);
+        lexer.replace(at, at + 5, "bye");
+        Assertions.assertEquals("helloWorld", before.getValue());
+        Assertions.assertEquals("byeWorld", lexer.getTokens().get(index).getValue());
+    }
+
+    @Test
+    public void RandomEditsTest() throws Exception {
+        String[] pieces = {"\n", "    ", " ", "x", "if", "\"", "{", "}", "'", "12", ".", "=", "\t", "y = 3\n", "\n        z\n"};
+        var random = new Random(7);
+        var lexer = new IncrementalLexer(program);
+        for (int i = 0; i < 2000; i++) {
+            String text = lexer.getText();
+            int start = random.nextInt(text.length() + 1);
+            int end = Math.min(text.length(), start + random.nextInt(4));
+            String replacement = random.nextInt(3) == 0 ? "" : pieces[random.nextInt(pieces.length)];
+
+            List<Token> expected;
+            try {
+                expected = fullLex(text.substring(0, start) + replacement + text.substring(end));
+            } catch (Exception e) {
+                expected = null;
+            }
+            List<Token> actual;
+            try {
+                actual = lexer.replace(start, end, replacement);
+            } catch (Exception e) {
+                actual = null;
+            }
+            Assertions.assertEquals(expected, actual, "after edit " + i);
+
+            if (actual == null) { //Undo edits that don't lex, which has to start over from nothing
+                lexer.replace(start, start + replacement.length(), text.substring(start, end));
+                Assertions.assertEquals(fullLex(text), lexer.getTokens(), "after undoing edit " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package Tests;
+
+import AST.ClassNode;
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.util.Random;
+
+public class IncrementalParserTests {
+
+    private static String program(int classes) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            sb.append("interface shape").append(i).append("\n    area() : number a\n");
+            sb.append("class square").append(i).append(" implements shape").append(i).append("\n");
+            sb.append("    number side\n");
+            sb.append("    construct()\n");
+            sb.append("        side = ").append(i).append("\n");
+            sb.append("    area() : number a\n");
+            sb.append("        number twice\n");
+            sb.append("        twice = side * 2\n");
+            sb.append("        a = side * side\n");
+            sb.append("        if a > 100\n");
+            sb.append("            a = 100\n");
+            sb.append("    grow(number by)\n");
+            sb.append("        side = side + by\n\n");
+        }
+        return sb.toString();
+    }
+
+    private static String fullParse(String text) throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(text).Lex()).Tran();
+        return top.toString();
+    }
+
+    @Test
+    public void MethodEditTest() throws Exception {
+        String text = program(50);
+        var parser = new IncrementalParser(text);
+        TranNode top = parser.getTree();
+        ClassNode edited = top.Classes.get(20);
+        ClassNode other = top.Classes.get(30);
+        var grow = edited.methods.get(1);
+
+        int at = text.indexOf("a = side * side", text.indexOf("class square20 "));
+        parser.replace(at + 4, at + 15, "side + side + 1");
+        Assertions.assertEquals(fullParse(parser.getText()), top.toString());
+        Assertions.assertSame(edited, top.Classes.get(20));
+        Assertions.assertSame(other, top.Classes.get(30));
+        Assertions.assertSame(grow, edited.methods.get(1));
+        Assertions.assertTrue(parser.getReparsedTokens() < 50);
+
+        //A new line in the method moves everything after it along
+        parser.replace(at, at, "twice = twice + 1\n        ");
+        Assertions.assertEquals(fullParse(parser.getText()), top.toString());
+        Assertions.assertTrue(parser.getReparsedTokens() < 50);
+        at = parser.getText().indexOf("side = side + by", parser.getText().indexOf("class square40 "));
+        parser.replace(at + 14, at + 16, "3");
+        Assertions.assertEquals(fullParse(parser.getText()), top.toString());
+        Assertions.assertTrue(parser.getReparsedTokens() < 50);
+    }
+
+    @Test
+    public void ClassEditTest() throws Exception {
+        String text = program(20);
+        var parser = new IncrementalParser(text);
+        TranNode top = parser.getTree();
+        ClassNode first = top.Classes.getFirst();
+
+        int at = text.indexOf("    number side", text.indexOf("class square5 "));
+        parser.replace(at, at, "    string name\n");
+        Assertions.assertEquals(fullParse(parser.getText()), top.toString());
+        Assertions.assertSame(first, top.Classes.getFirst());
+        Assertions.assertEquals(2, top.Classes.get(5).members.size());
+
+        //A header edit is inside the class but not inside the method body
+        at = parser.getText().indexOf("grow(number by)", parser.getText().indexOf("class square7 "));
+        parser.replace(at, at + 4, "shrink");
+        Assertions.assertEquals(fullParse(parser.getText()), top.toString());
+        Assertions.assertEquals("shrink", top.Classes.get(7).methods.get(1).name);
+    }
+
+    @Test
+    public void BrokenEditTest() throws Exception {
+        String text = program(5);
+        var parser = new IncrementalParser(text);
+        int at = text.indexOf("twice = side * 2");
+        Assertions.assertThrows(SyntaxErrorException.class, () -> parser.replace(at + 13, at + 14, "* )"));
+        parser.replace(at + 13, at + 16, "*");
+        Assertions.assertEquals(text, parser.getText());
+        Assertions.assertEquals(fullParse(text), parser.getTree().toString());
+    }
+
+    @Test
+    public void RandomEditsTest() throws Exception {
+        String[] lines = {"        side = side + 1\n", "        side = 3\n", "        twice = side * side * 2\n", "\n"};
+        var random = new Random(7);
+        var parser = new IncrementalParser(program(10));
+        for (int i = 0; i < 500; i++) {
+            String text = parser.getText();
+            int start;
+            int end;
+            String replacement;
+            if (random.nextBoolean()) { //A number changes
+                start = text.indexOf("side * ", random.nextInt(text.length())) + 7;
+                end = start + 1;
+                replacement = String.valueOf(random.nextInt(20));
+                if (start < 7 || !Character.isDigit(text.charAt(start)))
+                    continue;
+            } else { //A statement comes or goes
+                start = text.indexOf("\n        side", random.nextInt(text.length())) + 1;
+                if (start == 0)
+                    continue;
+                end = random.nextInt(3) == 0 ? text.indexOf('\n', start) + 1 : start;
+                replacement = end == start ? lines[random.nextInt(lines.length)] : "";
+            }
+
+            String edited = text.substring(0, start) + replacement + text.substring(end);
+            String expected;
+            try {
+                expected = fullParse(edited);
+            } catch (Exception e) {
+                expected = null;
+            }
+            String actual;
+            try {
+                actual = parser.replace(start, end, replacement).toString();
+            } catch (Exception e) {
+                actual = null;
+            }
+            Assertions.assertEquals(expected, actual, "after edit " + i);
+
+            if (actual == null) { //Undo edits that don't parse, which has to start over from nothing
+                parser.replace(start, start + replacement.length(), text.substring(start, end));
+                Assertions.assertEquals(fullParse(text), parser.getTree().toString(), "after undoing edit " + i);
+            }
+        }
+    }
+}
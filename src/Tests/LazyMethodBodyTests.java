@@ -0,0 +1,127 @@
+package Tests;
+
+import AST.ClassNode;
+import AST.MethodDeclarationNode;
+import AST.TranNode;
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.util.LinkedList;
+import java.util.List;
+
+public class LazyMethodBodyTests {
+
+    private static TranNode parse(String program, boolean lazy) throws Exception {
+        TranNode top = new TranNode();
+        Parser parser = new Parser(top, new Lexer(program).Lex());
+        parser.setLazyMethodBodies(lazy);
+        parser.Tran();
+        return top;
+    }
+
+    private static MethodDeclarationNode method(ClassNode c, String name) {
+        return c.methods.stream().filter(m -> m.name.equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void SameTreeTest() throws Exception {
+        String program = "class counter\n" +
+                "    number count\n" +
+                "    add(number amount) : number total\n" +
+                "        number twice\n" +
+                "        twice = amount * 2\n" +
+                "        if count < 10\n" +
+                "            if twice > 3\n" +
+                "                count = count + twice\n" +
+                "            else\n" +
+                "                count = count + 1\n" +
+                "        total = count\n" +
+                "    shared start()\n" +
+                "        counter c\n" +
+                "        c = new counter()\n" +
+                "interface adder\n" +
+                "    add(number amount) : number total\n" +
+                "class last\n" +
+                "    end()\n" +
+                "        console.write(\"done\")";
+
+        TranNode lazy = parse(program, true);
+        MethodDeclarationNode add = lazy.Classes.getFirst().methods.getFirst();
+        Assertions.assertNotNull(add.unparsedBody);
+        Assertions.assertTrue(add.statements.isEmpty());
+        Assertions.assertEquals(2, lazy.Classes.size());
+
+        //Printing leaves the bodies alone, and once they are read the tree is the same as one parsed all at once
+        Assertions.assertTrue(lazy.toString().contains(MethodDeclarationNode.UNPARSED_BODY));
+        Assertions.assertNotNull(add.unparsedBody);
+        lazy.Classes.forEach(c -> c.methods.forEach(MethodDeclarationNode::parseBody));
+        Assertions.assertEquals(parse(program, false).toString(), lazy.toString());
+        Assertions.assertNull(add.unparsedBody);
+        Assertions.assertEquals(List.of("twice"), add.locals.stream().map(l -> l.name).toList());
+        Assertions.assertEquals(3, add.statements.size());
+    }
+
+    @Test
+    public void OnlyCalledMethodsParsedTest() throws Exception {
+        String program = "class lazy\n" +
+                "    used() : number result\n" +
+                "        result = 6 * 7\n" +
+                "    unused()\n" +
+                "        x = = 1\n" +
+                "    shared start()\n" +
+                "        lazy l\n" +
+                "        number n\n" +
+                "        l = new lazy()\n" +
+                "        n = l.used()\n";
+
+        Assertions.assertThrows(SyntaxErrorException.class, () -> parse(program, false));
+        TranNode top = parse(program, true);
+        ClassNode c = top.Classes.getFirst();
+        new Interpreter(top).start();
+
+        Assertions.assertNull(method(c, "start").unparsedBody);
+        Assertions.assertNull(method(c, "used").unparsedBody);
+        MethodDeclarationNode unused = method(c, "unused");
+        Assertions.assertNotNull(unused.unparsedBody);
+
+        Assertions.assertTrue(unused.toString().contains(MethodDeclarationNode.UNPARSED_BODY));
+        var error = Assertions.assertThrows(Parser.LazyBodyException.class, unused::parseBody);
+        Assertions.assertEquals(5, error.getCause().getLineNumber());
+    }
+
+    @Test
+    public void StreamedTokensTest() throws Exception {
+        //Far more tokens than a streamed buffer keeps before it drops the ones parsed, with the only call at the end
+        StringBuilder program = new StringBuilder("class many\n");
+        for (int i = 0; i < 500; i++)
+            program.append("    m").append(i).append("() : number r\n        r = ").append(i).append(" * 2 + 1\n");
+        program.append("    shared start()\n        many m\n        m = new many()\n        console.write(m.m7())\n");
+
+        TranNode top = new TranNode();
+        Parser parser = new Parser(top, new Lexer(program.toString()));
+        parser.setLazyMethodBodies(true);
+        parser.Tran();
+        ClassNode c = top.Classes.getFirst();
+        Assertions.assertNotNull(method(c, "m7").unparsedBody);
+        method(c, "m7").parseBody();
+        Assertions.assertEquals(method(parse(program.toString(), false).Classes.getFirst(), "m7").toString(), method(c, "m7").toString());
+        Assertions.assertNotNull(method(c, "m400").unparsedBody);
+    }
+
+    @Test
+    public void LinkedListTokensTest() throws Exception {
+        //Every body is parsed from the buffer the declarations were, not from the list handed to the Parser
+        StringBuilder program = new StringBuilder("class many\n");
+        for (int i = 0; i < 200; i++)
+            program.append("    m").append(i).append("() : number r\n        r = ").append(i).append(" * 2 + 1\n");
+
+        TranNode top = new TranNode();
+        Parser parser = new Parser(top, new LinkedList<>(new Lexer(program.toString()).Lex()));
+        parser.setLazyMethodBodies(true);
+        parser.Tran();
+        top.Classes.forEach(c -> c.methods.forEach(MethodDeclarationNode::parseBody));
+        Assertions.assertEquals(parse(program.toString(), false).toString(), top.toString());
+    }
+}
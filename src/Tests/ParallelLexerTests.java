@@ -0,0 +1,48 @@
+package Tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelLexerTests {
+
+    //Big enough to be cut into several pieces, with comments and strings that look like the start of a class
+    private static String program(int classes) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            sb.append("class Tran").append(i).append(" implements someName\n");
+            sb.append("    number x = ").append(i).append(".5\n");
+            sb.append("    { a comment\nclass notAClass\n    }\n");
+            sb.append("    helloWorld() : string s\n");
+            sb.append("        s = \"a string\nclass alsoNotAClass\n\"\n");
+            sb.append("        if x >= 'c'\n");
+            sb.append("            x = x + 1\n\n");
+            sb.append("interface someName").append(i).append("\n    doIt()\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void SameAsLexerTest() throws Exception {
+        String text = program(3000);
+        var pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(new Lexer(text).Lex(), new ParallelLexer(text, pool).Lex());
+            Assertions.assertEquals(new Lexer("class a\n").Lex(), new ParallelLexer("class a\n", pool).Lex());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void FirstErrorTest() throws Exception {
+        String text = program(3000);
+        text = text.substring(0, text.length() / 3) + "#" + text.substring(text.length() / 3, text.length() * 2 / 3) + "#" + text.substring(text.length() * 2 / 3);
+        String finalText = text;
+        var expected = Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer(finalText).Lex());
+        var actual = Assertions.assertThrows(SyntaxErrorException.class, () -> new ParallelLexer(finalText).Lex());
+        Assertions.assertEquals(expected.toString(), actual.toString());
+    }
+}
@@ -0,0 +1,64 @@
+package Tests;
+
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelParserTests {
+
+    private static String program(int classes) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            sb.append("interface someName").append(i).append("\n    doIt()\n");
+            sb.append("class Tran").append(i).append(" implements someName").append(i).append("\n");
+            sb.append("    number x\n");
+            sb.append("    doIt()\n");
+            sb.append("        if x >= 3\n");
+            sb.append("            x = x + ").append(i).append(" * 2\n");
+            sb.append("        else\n");
+            sb.append("            x = 0\n\n");
+        }
+        return sb.toString();
+    }
+
+    private static String parse(List<Token> tokens, ForkJoinPool pool) throws Exception {
+        TranNode top = new TranNode();
+        if (pool == null)
+            new Parser(top, tokens).Tran();
+        else
+            new ParallelParser(top, tokens, pool).Tran();
+        return top.toString();
+    }
+
+    @Test
+    public void SameAsParserTest() throws Exception {
+        List<Token> tokens = new Lexer(program(3000)).Lex();
+        List<Token> small = new Lexer("class a\n    number x\n").Lex();
+        var pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(parse(tokens, null), parse(tokens, pool));
+            Assertions.assertEquals(parse(small, null), parse(small, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void FirstErrorTest() throws Exception {
+        String text = program(3000);
+        text = text.replace("x = x + 1000 * 2", "x = x + 1000 * * 2").replace("x = x + 2000 * 2", "x = x + + 2000 * 2");
+        List<Token> tokens = new Lexer(text).Lex();
+        var expected = Assertions.assertThrows(SyntaxErrorException.class, () -> parse(tokens, null));
+        var pool = new ForkJoinPool(4);
+        try {
+            var actual = Assertions.assertThrows(SyntaxErrorException.class, () -> parse(tokens, pool));
+            Assertions.assertEquals(expected.toString(), actual.toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package Tests;
+
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+public class PipelineTests {
+
+    private static final String program = "interface someName\n" +
+            "    square() : number s\n" +
+            "class fahrenheit implements someName\n" +
+            "    number temperature\n" +
+            "    construct(number t)\n" +
+            "        temperature = t\n" +
+            "    square() : number s\n" +
+            "        s = temperature * temperature\n" +
+            "    toCelsius() : number c\n" +
+            "        number convert {a comment}\n" +
+            "        convert = (temperature -32)*5/9\n" +
+            "        if convert > 0\n" +
+            "            c = convert\n" +
+            "        else\n" +
+            "            c = 0\n";
+
+    @Test
+    public void LazyMatchesEagerTest() throws Exception {
+        var eager = new TranNode();
+        new Parser(eager, new Lexer(program).Lex()).Tran();
+
+        var lazy = new TranNode();
+        new Parser(lazy, new Lexer(program)).Tran();
+
+        Assertions.assertEquals(eager.toString(), lazy.toString());
+        Assertions.assertEquals(1, lazy.Interfaces.size());
+        Assertions.assertEquals(1, lazy.Classes.size());
+    }
+
+    @Test
+    public void LongProgramTest() throws Exception {
+        StringBuilder longProgram = new StringBuilder();
+        for (int i = 0; i < 300; i++)
+            longProgram.append(program.replace("fahrenheit", "fahrenheit" + i).replace("someName", "someName" + i));
+
+        var eager = new TranNode();
+        new Parser(eager, new Lexer(longProgram.toString()).Lex()).Tran();
+
+        var lazy = new TranNode();
+        new Parser(lazy, new Lexer(longProgram.toString())).Tran();
+
+        Assertions.assertEquals(300, lazy.Classes.size());
+        Assertions.assertEquals(eager.toString(), lazy.toString());
+    }
+
+    @Test
+    public void PullTokensTest() throws Exception {
+        var expected = new Lexer(program).Lex();
+        var lexer = new Lexer(program);
+        for (Token token : expected)
+            Assertions.assertEquals(token.toString(), lexer.next().toString());
+        Assertions.assertNull(lexer.next());
+    }
+
+    @Test
+    public void LexErrorDuringParseTest() {
+        var lexer = new Lexer("class broken\n    number x\n    string s = \"never closed\n");
+        Assertions.assertThrows(SyntaxErrorException.class, () -> new Parser(new TranNode(), lexer).Tran());
+    }
+}
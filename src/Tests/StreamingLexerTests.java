@@ -0,0 +1,70 @@
+package Tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class StreamingLexerTests {
+
+    private static void assertSameTokens(List<Token> expected, List<Token> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            Assertions.assertEquals(expected.get(i).toString(), actual.get(i).toString());
+    }
+
+    private static List<Token> lexFile(String program) throws Exception {
+        Path file = Files.createTempFile("tran", ".tran");
+        try {
+            Files.writeString(file, program);
+            try (Lexer lexer = new Lexer(file)) {
+                return lexer.Lex();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void LargeFileTest() throws Exception {
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            program.append("class Example").append(i).append(" {a comment about class ").append(i).append("}\n");
+            program.append("    number x\n");
+            program.append("    start()\n");
+            program.append("        x = 1.5 + ").append(i).append("\n");
+            program.append("        console.write(\"class ").append(i).append("\", 'c')\n");
+        }
+        assertSameTokens(new Lexer(program.toString()).Lex(), lexFile(program.toString()));
+    }
+
+    @Test
+    public void TokenLongerThanChunkTest() throws Exception {
+        String program = "s = \"" + "x".repeat(200_000) + "\"\nt = \"é\"\n";
+        var tokens = lexFile(program);
+        Assertions.assertEquals(200_000, tokens.get(2).getValue().length());
+        Assertions.assertEquals("é", tokens.get(6).getValue());
+        assertSameTokens(new Lexer(program).Lex(), tokens);
+    }
+
+    @Test
+    public void UnterminatedCommentTest() {
+        Assertions.assertThrows(SyntaxErrorException.class, () -> lexFile("x {never closed"));
+
+        //An error partway through closes the reader instead of leaving it open until the end of the input
+        var closed = new boolean[1];
+        var reader = new StringReader("x = 1.2.3\n" + "z = 2\n".repeat(100_000)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+                super.close();
+            }
+        };
+        Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer(new StreamingTextManager(reader)).Lex());
+        Assertions.assertTrue(closed[0]);
+    }
+}
@@ -0,0 +1,92 @@
+package Tests;
+
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+public class SubtreeSharerTests {
+
+    private static final String program = """
+            class counter
+                number x
+                number y
+
+                construct()
+                    x = 6
+                    y = x * 2 + 1
+
+                add()
+                    number z
+                    z = x * 2 + 1
+                    y = x * 2 + 1
+                    if z > 10
+                        console.write("big", x * 2 + 1)
+                    else
+                        console.write("small", 2)
+
+                shared start()
+                    counter c
+                    c = new counter()
+                    c.add()
+                    console.write("done", 2, 2 + 3)
+            """;
+
+    private static TranNode parse(String text) throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(text).Lex()).Tran();
+        return top;
+    }
+
+    private static ExpressionNode assigned(StatementNode statement) {
+        return ((AssignmentNode) statement).expression;
+    }
+
+    @Test
+    public void SameTreeTest() throws Exception {
+        TranNode top = parse(program);
+        String before = top.toString();
+        Assertions.assertTrue(SubtreeSharer.share(top) > 0);
+        Assertions.assertEquals(before, top.toString());
+    }
+
+    @Test
+    public void SharedWithinMethodTest() throws Exception {
+        TranNode top = parse(program);
+        SubtreeSharer.share(top);
+        ClassNode counter = top.Classes.getFirst();
+        var add = counter.methods.getFirst().statements;
+        Assertions.assertSame(assigned(add.get(0)), assigned(add.get(1)));
+        var big = (MethodCallStatementNode) ((IfNode) add.get(2)).statements.getFirst();
+        Assertions.assertSame(assigned(add.get(0)), big.parameters.get(1));
+        Assertions.assertSame(((AssignmentNode) add.get(0)).target, ((CompareNode) ((IfNode) add.get(2)).condition).left);
+
+        //The same text in another method reads variables of its own, so only the literals in it are shared
+        ExpressionNode inConstructor = assigned(counter.constructors.getFirst().statements.get(1));
+        Assertions.assertNotSame(assigned(add.get(0)), inConstructor);
+        Assertions.assertSame(((MathOpNode) assigned(add.get(0))).right, ((MathOpNode) inConstructor).right);
+    }
+
+    @Test
+    public void LiteralsSharedEverywhereTest() throws Exception {
+        TranNode top = parse(program);
+        SubtreeSharer.share(top);
+        ClassNode counter = top.Classes.getFirst();
+        var small = (MethodCallStatementNode) ((IfNode) counter.methods.getFirst().statements.get(2)).elseStatement.get().statements.getFirst();
+        var done = (MethodCallStatementNode) counter.methods.get(1).statements.get(2);
+        Assertions.assertSame(small.parameters.get(1), done.parameters.get(1));
+        Assertions.assertSame(done.parameters.get(1), ((MathOpNode) done.parameters.get(2)).left);
+        Assertions.assertNotSame(small, done);
+        Assertions.assertNotSame(((IfNode) counter.methods.getFirst().statements.get(2)).statements.getFirst(), small);
+    }
+
+    @Test
+    public void SameOutputTest() throws Exception {
+        Assertions.assertEquals(ConsoleOutput.start(parse(program)), ConsoleOutput.start(shared(parse(program))));
+    }
+
+    private static TranNode shared(TranNode top) {
+        SubtreeSharer.share(top);
+        return top;
+    }
+}
@@ -0,0 +1,59 @@
+package Tests;
+
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.io.StringReader;
+
+public class SymbolTableTests {
+
+    @Test
+    public void InternTest() {
+        int id = SymbolTable.intern("symbolTableTestName");
+        Assertions.assertEquals(id, SymbolTable.intern("symbolTable" + "TestName"));
+        Assertions.assertEquals("symbolTableTestName", SymbolTable.name(id));
+        Assertions.assertNotEquals(id, SymbolTable.intern("symbolTableTestNam"));
+
+        //Enough names to force the table to grow
+        int[] ids = new int[5000];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = SymbolTable.intern("grow" + i);
+        for (int i = 0; i < ids.length; i++)
+            Assertions.assertEquals(ids[i], SymbolTable.intern("grow" + i));
+    }
+
+    @Test
+    public void LexerInternsWordsTest() throws Exception {
+        var buffer = (TokenBuffer) new Lexer("class lexerWord\n    number lexerWord\n").Lex();
+        Assertions.assertEquals(SymbolTable.intern("lexerWord"), buffer.symbol(1));
+        Assertions.assertEquals(buffer.symbol(1), buffer.symbol(5));
+        Assertions.assertEquals(SymbolTable.intern("number"), buffer.symbol(4));
+        Assertions.assertEquals(-1, buffer.symbol(0));
+        Assertions.assertEquals(buffer.symbol(1), buffer.get(1).getSymbol());
+        Assertions.assertEquals(buffer.symbol(1), new Token(Token.TokenTypes.WORD, 1, 6, "lexerWord").getSymbol());
+
+        var streamed = new Lexer(new StreamingTextManager(new StringReader("class lexerWord\n"))).Lex();
+        Assertions.assertEquals(buffer.symbol(1), streamed.get(1).getSymbol());
+    }
+
+    @Test
+    public void ParserSetsIdsTest() throws Exception {
+        var tran = new TranNode();
+        var tokens = new Lexer("class tran implements someName\n    number x\n    helloWorld()\n        x = x + 1\n        y = tran.helloWorld()\n").Lex();
+        new Parser(tran, tokens).Tran();
+        var c = tran.Classes.getFirst();
+        Assertions.assertEquals(SymbolTable.intern("tran"), c.nameId);
+        Assertions.assertEquals(SymbolTable.intern("someName"), c.interfaceIds.getFirst());
+        Assertions.assertEquals(SymbolTable.intern("number"), c.members.getFirst().declaration.typeId);
+        Assertions.assertEquals(SymbolTable.intern("x"), c.members.getFirst().declaration.nameId);
+        var m = c.methods.getFirst();
+        Assertions.assertEquals(SymbolTable.intern("helloWorld"), m.nameId);
+        var assignment = (AssignmentNode) m.statements.getFirst();
+        Assertions.assertEquals(SymbolTable.intern("x"), assignment.target.nameId);
+        var call = (MethodCallStatementNode) m.statements.get(1);
+        Assertions.assertEquals(SymbolTable.intern("tran"), call.objectNameId);
+        Assertions.assertEquals(SymbolTable.intern("helloWorld"), call.methodNameId);
+    }
+}
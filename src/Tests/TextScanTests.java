@@ -0,0 +1,47 @@
+package Tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class TextScanTests {
+
+    private static List<TextManager> managers(String text) {
+        return List.of(new TextManager(text), new Utf8TextManager(text.getBytes(StandardCharsets.UTF_8)),
+                new StreamingTextManager(new StringReader(text)));
+    }
+
+    @Test
+    public void SkipUntilTest() {
+        //Long enough that the stop characters fall at every offset in an eight byte word, with and without non-ASCII
+        for (String run : new String[]{"abcdefghijklmnopqrstu", "abcdéfgh😀ijklmnop✓qrstu"}) {
+            for (int length = 0; length <= run.length(); length++) {
+                String text = run.substring(0, length) + "}" + run;
+                for (TextManager manager : managers(text)) {
+                    Assertions.assertEquals(length, manager.skipUntil('}'));
+                    Assertions.assertEquals('}', manager.getCharacter());
+                    Assertions.assertEquals(run.length(), manager.skipUntil('}'));
+                    Assertions.assertTrue(manager.isAtEnd());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void SkipWhileTest() {
+        for (int length = 0; length < 20; length++) {
+            String text = " ".repeat(length) + "é ";
+            for (TextManager manager : managers(text)) {
+                Assertions.assertEquals(length, manager.skipWhile(' '));
+                Assertions.assertEquals('é', manager.getCharacter());
+                Assertions.assertEquals(1, manager.skipWhile(' '));
+                Assertions.assertEquals(0, manager.skipWhile(' '));
+                Assertions.assertTrue(manager.isAtEnd());
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package Tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TokenBufferTests {
+
+    @Test
+    public void LexReturnsBufferTest() throws Exception {
+        var tokens = new Lexer("class a\n    number x\n").Lex();
+        Assertions.assertInstanceOf(TokenBuffer.class, tokens);
+        var buffer = (TokenBuffer) tokens;
+        Assertions.assertEquals(Token.TokenTypes.CLASS, buffer.type(0));
+        Assertions.assertEquals("a", buffer.value(1));
+        Assertions.assertEquals(Token.TokenTypes.INDENT, buffer.type(3));
+        Assertions.assertEquals(2, buffer.line(3));
+        Assertions.assertEquals(new Token(Token.TokenTypes.WORD, 2, 0, "number"), tokens.get(4));
+    }
+
+    @Test
+    public void ListAdapterTest() {
+        List<Token> list = new ArrayList<>();
+        list.add(new Token(Token.TokenTypes.WORD, 1, 1, "hello"));
+        list.add(new Token(Token.TokenTypes.NEWLINE, 1, 6));
+        list.add(new Token(Token.TokenTypes.QUOTEDSTRING, 2, 1, "a string"));
+
+        var buffer = TokenBuffer.of(list);
+        Assertions.assertEquals(list, buffer);
+        Assertions.assertSame(buffer, TokenBuffer.of(buffer));
+
+        var copy = new ArrayList<Token>();
+        for (Token token : buffer)
+            copy.add(token);
+        Assertions.assertEquals(list, copy);
+    }
+
+    @Test
+    public void OutOfRangeTest() {
+        var buffer = new TokenBuffer();
+        buffer.add(Token.TokenTypes.DEDENT, 1, 0);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(1));
+    }
+}
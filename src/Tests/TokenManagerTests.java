@@ -0,0 +1,54 @@
+package Tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class TokenManagerTests {
+
+    @Test
+    public void CheckAndAdvanceTest() {
+        TokenManager tokenManager = new TokenManager(List.of(
+                new Token(Token.TokenTypes.WORD, 1, 0, "hello"),
+                new Token(Token.TokenTypes.ASSIGN, 1, 6),
+                new Token(Token.TokenTypes.NUMBER, 1, 8, "12")));
+
+        Assertions.assertTrue(tokenManager.check(Token.TokenTypes.WORD));
+        Assertions.assertFalse(tokenManager.check(Token.TokenTypes.NUMBER));
+        Assertions.assertTrue(tokenManager.check(1, Token.TokenTypes.ASSIGN));
+        Assertions.assertTrue(tokenManager.check(2, Token.TokenTypes.NUMBER));
+        Assertions.assertFalse(tokenManager.check(3, Token.TokenTypes.NUMBER));
+
+        Assertions.assertEquals("hello", tokenManager.value());
+        Assertions.assertEquals(SymbolTable.intern("hello"), tokenManager.symbol());
+        tokenManager.advance();
+        Assertions.assertFalse(tokenManager.accept(Token.TokenTypes.NUMBER));
+        Assertions.assertTrue(tokenManager.accept(Token.TokenTypes.ASSIGN));
+        Assertions.assertEquals("12", tokenManager.value());
+        Assertions.assertEquals(-1, tokenManager.symbol());
+        tokenManager.advance();
+
+        Assertions.assertTrue(tokenManager.done());
+        Assertions.assertFalse(tokenManager.check(Token.TokenTypes.WORD));
+        Assertions.assertFalse(tokenManager.accept(Token.TokenTypes.WORD));
+        Assertions.assertThrows(NoSuchElementException.class, tokenManager::advance);
+        Assertions.assertThrows(NoSuchElementException.class, tokenManager::value);
+    }
+
+    @Test
+    public void PulledFromLexerTest() throws Exception {
+        String program = "class counter\n    number count\n";
+        List<Token> expected = new Lexer(program).Lex();
+        TokenManager tokenManager = new TokenManager(new Lexer(program));
+        for (Token token : expected) {
+            Assertions.assertTrue(tokenManager.check(token.getType()));
+            Assertions.assertEquals(token.getValue(), tokenManager.value());
+            Assertions.assertEquals(token.getSymbol(), tokenManager.symbol());
+            tokenManager.advance();
+        }
+        Assertions.assertTrue(tokenManager.done());
+    }
+}
@@ -0,0 +1,31 @@
+package Tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+public class TokenTests {
+
+    @Test
+    public void LexedValuesTest() throws Exception {
+        var tokens = new Lexer("word 12.5 \"a string\" 'c'").Lex();
+        Assertions.assertEquals(4, tokens.size());
+        Assertions.assertEquals("word", tokens.get(0).getValue());
+        Assertions.assertEquals("12.5", tokens.get(1).getValue());
+        Assertions.assertEquals("a string", tokens.get(2).getValue());
+        Assertions.assertEquals("c", tokens.get(3).getValue());
+    }
+
+    @Test
+    public void ValueIsOnlyCutOnceTest() throws Exception {
+        var token = new Lexer("someName").Lex().get(0);
+        Assertions.assertSame(token.getValue(), token.getValue());
+    }
+
+    @Test
+    public void ValuelessTokenTest() {
+        var token = new Token(Token.TokenTypes.NEWLINE, 3, 0);
+        Assertions.assertEquals("", token.getValue());
+        Assertions.assertEquals("NEWLINE @3,0", token.toString());
+    }
+}
@@ -0,0 +1,74 @@
+package Tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import Tran.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class Utf8LexerTests {
+
+    private static List<Token> lexBytes(String text) throws Exception {
+        return new Lexer(new Utf8TextManager(text.getBytes(StandardCharsets.UTF_8))).Lex();
+    }
+
+    @Test
+    public void SameAsStringTest() throws Exception {
+        String text = """
+                class Café implements naïve
+                    string s = "héllo wörld ✓ 😀 end"
+                    character c = 'é'
+                    { a comment with ünïcode ✓ 😀 }
+                    number π = 3.14
+                    grüße() : string s
+                        s = "日本語" + s
+                """;
+        List<Token> expected = new Lexer(text).Lex();
+        List<Token> actual = lexBytes(text);
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals("Café", actual.get(1).getValue());
+        Assertions.assertEquals(SymbolTable.intern("Café"), actual.get(1).getSymbol());
+        Assertions.assertEquals("héllo wörld ✓ 😀 end", actual.stream().filter(t -> t.getType() == Token.TokenTypes.QUOTEDSTRING).findFirst().get().getValue());
+    }
+
+    @Test
+    public void ErrorsTest() throws Exception {
+        for (String text : new String[]{"x = \"ünterminated", "x = '✓x'", "x = 😀", "{ ünterminated"}) {
+            var expected = Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer(text).Lex());
+            var actual = Assertions.assertThrows(SyntaxErrorException.class, () -> lexBytes(text));
+            Assertions.assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void MalformedTest() throws Exception {
+        //Cut short, overlong, a surrogate, past U+10FFFF, and a stray continuation byte
+        byte[] bytes = {'s', ' ', '=', ' ', '"', (byte) 0xE6, (byte) 0x93, 'b', (byte) 0xE0, (byte) 0x80, (byte) 0x80,
+                (byte) 0xED, (byte) 0xA0, (byte) 0x80, (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80, (byte) 0xBF, '"', ' ', '{', 'x'};
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        var expected = Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer(text).Lex());
+        var actual = Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer(new Utf8TextManager(bytes)).Lex());
+        Assertions.assertEquals(expected.toString(), actual.toString());
+        byte[] closed = Arrays.copyOf(bytes, bytes.length + 1);
+        closed[bytes.length] = '}';
+        Assertions.assertEquals(new Lexer(new String(closed, StandardCharsets.UTF_8)).Lex(), new Lexer(new Utf8TextManager(closed)).Lex());
+    }
+
+    @Test
+    public void MappedFileTest() throws Exception {
+        var file = Files.createTempFile("tran", ".tran");
+        try {
+            String text = "class tran\n    string s = \"ünïcode\"\n";
+            Files.writeString(file, text);
+            Assertions.assertEquals(new Lexer(text).Lex(), new Lexer(Utf8TextManager.map(file)).Lex());
+            var direct = ByteBuffer.allocateDirect(64).put(text.getBytes(StandardCharsets.UTF_8)).flip();
+            Assertions.assertEquals(new Lexer(text).Lex(), new Lexer(new Utf8TextManager(direct)).Lex());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
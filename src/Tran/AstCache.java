@@ -0,0 +1,92 @@
+package Tran;
+
+import AST.TranNode;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+//Keeps the parsed trees of programs in a directory so the next run can skip lexing and parsing them. A tree is filed
+//under the SHA-256 of the program's UTF-8 bytes and read back through a memory mapped file. A file that is missing,
+//damaged or from another version of AstSerializer is passed over and the program is parsed again, which also replaces
+//the file. The cache is only a shortcut, so failing to write it is not an error.
+public class AstCache {
+    private final Path directory;
+    private boolean cached; //Whether the last tree came from the cache
+
+    public AstCache(Path directory) {
+        this.directory = directory;
+    }
+
+    //Whether the last load found the tree in the cache
+    public boolean wasCached() {
+        return cached;
+    }
+
+    public TranNode load(String source) throws SyntaxErrorException {
+        return load(source.getBytes(StandardCharsets.UTF_8), source);
+    }
+
+    //Loads a program from a file. The text is only decoded when it has to be parsed.
+    public TranNode load(Path program) throws IOException, SyntaxErrorException {
+        return load(Files.readAllBytes(program), null);
+    }
+
+    private TranNode load(byte[] utf8, String source) throws SyntaxErrorException {
+        Path file = directory.resolve(hash(utf8) + ".ast");
+        TranNode top = read(file);
+        cached = top != null;
+        if (cached)
+            return top;
+
+        if (source == null)
+            source = new String(utf8, StandardCharsets.UTF_8);
+        top = new TranNode();
+        new Parser(top, new Lexer(source)).Tran();
+        write(file, top);
+        return top;
+    }
+
+    private static TranNode read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return AstSerializer.read(bytes);
+        } catch (IOException | IllegalArgumentException e) {
+            return null; //Not there yet, damaged or out of date, so it gets parsed and written again
+        }
+    }
+
+    //Writes next to the file and moves it into place, so a reader never sees half of it. A tree that can't be written
+    //is left out of the cache.
+    private void write(Path file, TranNode top) {
+        try {
+            byte[] bytes = AstSerializer.write(top);
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "ast", ".tmp");
+            try {
+                Files.write(temporary, bytes);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            //Next time it is parsed again
+        }
+    }
+
+    private static String hash(byte[] utf8) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(utf8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); //Every JVM has SHA-256
+        }
+    }
+}
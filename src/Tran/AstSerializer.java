@@ -0,0 +1,583 @@
+package Tran;
+
+import AST.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+//Writes a TranNode out as bytes and reads it back, for AstCache. Every name and string is stored once in a table at
+//the front and nodes refer to it by index. SymbolTable ids are only good for one run, so they are not stored but
+//looked up again from the names, as the Parser does. Reading checks the header and a checksum and throws an
+//IllegalArgumentException for anything that isn't a tree this version wrote.
+//
+//  int magic, int version, int length of the rest, int CRC32 of the rest
+//  int string count, then each string as int length and UTF-8 bytes
+//  the tree, each node a tag byte and its fields in order
+public class AstSerializer {
+
+    private static final int MAGIC = 0x5452414E; //"TRAN"
+    static final int VERSION = 1;
+    private static final int HEADER = 16;
+
+    //Tags for the kinds of node. NULL stands for a field the parser left null.
+    private static final int NULL = 0;
+    private static final int ASSIGNMENT = 1;
+    private static final int IF = 2;
+    private static final int LOOP = 3;
+    private static final int METHOD_CALL = 4;
+    private static final int BOOLEAN_LITERAL = 5;
+    private static final int BOOLEAN_OP = 6;
+    private static final int CHAR_LITERAL = 7;
+    private static final int COMPARE = 8;
+    private static final int MATH_OP = 9;
+    private static final int METHOD_CALL_EXPRESSION = 10;
+    private static final int NEW = 11;
+    private static final int NOT_OP = 12;
+    private static final int NUMERIC_LITERAL = 13;
+    private static final int STRING_LITERAL = 14;
+    private static final int VARIABLE_REFERENCE = 15;
+
+    //Optionals are written as one of these, as the parser leaves some of them null
+    private static final int ABSENT = 1;
+    private static final int PRESENT = 2;
+
+    public static byte[] write(TranNode top) {
+        try {
+            return new Writer().write(top);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); //Only writes to memory
+        }
+    }
+
+    public static TranNode read(ByteBuffer bytes) {
+        if (bytes.remaining() < HEADER || bytes.getInt() != MAGIC)
+            throw new IllegalArgumentException("Not a Tran AST");
+        if (bytes.getInt() != VERSION)
+            throw new IllegalArgumentException("AST from another version");
+        int length = bytes.getInt();
+        int checksum = bytes.getInt();
+        if (length != bytes.remaining())
+            throw new IllegalArgumentException("AST is cut short");
+        CRC32 crc = new CRC32();
+        crc.update(bytes.slice());
+        if ((int) crc.getValue() != checksum)
+            throw new IllegalArgumentException("AST checksum does not match");
+        try {
+            TranNode top = new Reader(bytes).readTop();
+            if (bytes.hasRemaining())
+                throw new IllegalArgumentException("Bytes left after the AST");
+            return top;
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException)
+                throw e;
+            throw new IllegalArgumentException("Damaged AST", e);
+        }
+    }
+
+    private static class Writer {
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<String> table = new ArrayList<>();
+        private final ByteArrayOutputStream tree = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(tree);
+
+        byte[] write(TranNode top) throws IOException {
+            list(top.Interfaces, this::interfaceNode);
+            list(top.Classes, this::classNode);
+
+            ByteArrayOutputStream all = new ByteArrayOutputStream(tree.size() + table.size() * 16 + HEADER);
+            DataOutputStream header = new DataOutputStream(all);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(0); //Length and checksum are filled in at the end
+            header.writeInt(0);
+            header.writeInt(table.size());
+            for (String s : table) {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                header.writeInt(utf8.length);
+                header.write(utf8);
+            }
+            tree.writeTo(all);
+
+            ByteBuffer bytes = ByteBuffer.wrap(all.toByteArray());
+            CRC32 crc = new CRC32();
+            crc.update(bytes.array(), HEADER, bytes.capacity() - HEADER);
+            bytes.putInt(8, bytes.capacity() - HEADER);
+            bytes.putInt(12, (int) crc.getValue());
+            return bytes.array();
+        }
+
+        private interface Part<T> {
+            void write(T node) throws IOException;
+        }
+
+        private <T> void list(List<T> nodes, Part<T> part) throws IOException {
+            if (nodes == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(nodes.size());
+            for (T node : nodes)
+                part.write(node);
+        }
+
+        private <T> void optional(Optional<T> value, Part<T> part) throws IOException {
+            if (value == null)
+                out.writeByte(NULL);
+            else if (value.isEmpty())
+                out.writeByte(ABSENT);
+            else {
+                out.writeByte(PRESENT);
+                part.write(value.get());
+            }
+        }
+
+        private void string(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer index = strings.get(s);
+            if (index == null) {
+                index = table.size();
+                strings.put(s, index);
+                table.add(s);
+            }
+            out.writeInt(index);
+        }
+
+        private void interfaceNode(InterfaceNode i) throws IOException {
+            string(i.name);
+            list(i.methods, this::methodHeader);
+        }
+
+        private void methodHeader(MethodHeaderNode m) throws IOException {
+            string(m.name);
+            list(m.parameters, this::variableDeclaration);
+            list(m.returns, this::variableDeclaration);
+        }
+
+        private void classNode(ClassNode c) throws IOException {
+            string(c.name);
+            list(c.interfaces, this::string);
+            list(c.constructors, this::constructor);
+            list(c.methods, this::method);
+            list(c.members, member -> variableDeclaration(member.declaration));
+        }
+
+        private void constructor(ConstructorNode c) throws IOException {
+            list(c.parameters, this::variableDeclaration);
+            list(c.locals, this::variableDeclaration);
+            list(c.statements, this::statement);
+        }
+
+        private void method(MethodDeclarationNode m) throws IOException {
+            if (m instanceof BuiltInMethodDeclarationNode)
+                throw new IllegalArgumentException("Built-in method " + m.name + " can't be written");
+            m.parseBody();
+            out.writeBoolean(m.isShared);
+            out.writeBoolean(m.isPrivate);
+            string(m.name);
+            list(m.parameters, this::variableDeclaration);
+            list(m.returns, this::variableDeclaration);
+            list(m.locals, this::variableDeclaration);
+            list(m.statements, this::statement);
+        }
+
+        private void variableDeclaration(VariableDeclarationNode v) throws IOException {
+            if (v == null) {
+                out.writeByte(NULL);
+                return;
+            }
+            out.writeByte(PRESENT);
+            string(v.type);
+            string(v.name);
+            optional(v.initializer, this::expression);
+        }
+
+        private void statement(StatementNode s) throws IOException {
+            switch (s) {
+                case null -> out.writeByte(NULL);
+                case AssignmentNode a -> {
+                    out.writeByte(ASSIGNMENT);
+                    expression(a.target);
+                    expression(a.expression);
+                }
+                case IfNode i -> {
+                    out.writeByte(IF);
+                    expression(i.condition);
+                    list(i.statements, this::statement);
+                    optional(i.elseStatement, e -> list(e.statements, this::statement));
+                }
+                case LoopNode l -> {
+                    out.writeByte(LOOP);
+                    optional(l.assignment, this::expression);
+                    expression(l.expression);
+                    list(l.statements, this::statement);
+                }
+                case MethodCallStatementNode m -> {
+                    out.writeByte(METHOD_CALL);
+                    list(m.returnValues, this::expression);
+                    optional(m.objectName, this::string);
+                    string(m.methodName);
+                    list(m.parameters, this::expression);
+                }
+                default -> throw new IllegalArgumentException("Unknown statement " + s.getClass().getSimpleName());
+            }
+        }
+
+        //An operator is written before its left side and its left side before its right, so a long chain like
+        //1 + 1 + ... is written going down the left sides in a loop rather than by a call for each operator
+        private void expression(Node e) throws IOException {
+            List<ExpressionNode> spine = new ArrayList<>();
+            while (true) {
+                switch (e) {
+                    case BooleanOpNode b -> {
+                        out.writeByte(BOOLEAN_OP);
+                        out.writeByte(b.op == null ? -1 : b.op.ordinal());
+                        spine.add(b.right);
+                        e = b.left;
+                    }
+                    case CompareNode c -> {
+                        out.writeByte(COMPARE);
+                        out.writeByte(c.op == null ? -1 : c.op.ordinal());
+                        spine.add(c.right);
+                        e = c.left;
+                    }
+                    case MathOpNode m -> {
+                        out.writeByte(MATH_OP);
+                        out.writeByte(m.op == null ? -1 : m.op.ordinal());
+                        spine.add(m.right);
+                        e = m.left;
+                    }
+                    default -> {
+                        leaf(e);
+                        for (int i = spine.size() - 1; i >= 0; i--)
+                            expression(spine.get(i));
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void leaf(Node e) throws IOException {
+            switch (e) {
+                case null -> out.writeByte(NULL);
+                case BooleanLiteralNode b -> {
+                    out.writeByte(BOOLEAN_LITERAL);
+                    out.writeBoolean(b.value);
+                }
+                case CharLiteralNode c -> {
+                    out.writeByte(CHAR_LITERAL);
+                    out.writeChar(c.value);
+                }
+                case MethodCallExpressionNode m -> {
+                    out.writeByte(METHOD_CALL_EXPRESSION);
+                    optional(m.objectName, this::string);
+                    string(m.methodName);
+                    list(m.parameters, this::expression);
+                }
+                case NewNode n -> {
+                    out.writeByte(NEW);
+                    string(n.className);
+                    list(n.parameters, this::expression);
+                }
+                case NotOpNode n -> {
+                    out.writeByte(NOT_OP);
+                    expression(n.left);
+                }
+                case NumericLiteralNode n -> {
+                    out.writeByte(NUMERIC_LITERAL);
+                    out.writeFloat(n.value);
+                }
+                case StringLiteralNode s -> {
+                    out.writeByte(STRING_LITERAL);
+                    string(s.value);
+                }
+                case VariableReferenceNode v -> {
+                    out.writeByte(VARIABLE_REFERENCE);
+                    string(v.name);
+                }
+                default -> throw new IllegalArgumentException("Unknown expression " + e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer in;
+        private final String[] strings;
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+            int count = in.getInt();
+            if (count < 0 || count > in.remaining() / 4)
+                throw new IllegalArgumentException("Bad string count " + count);
+            strings = new String[count];
+            for (int i = 0; i < count; i++) {
+                byte[] utf8 = new byte[in.getInt()];
+                in.get(utf8);
+                strings[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+        }
+
+        TranNode readTop() {
+            TranNode top = new TranNode();
+            top.Interfaces = list(Reader::interfaceNode);
+            top.Classes = list(Reader::classNode);
+            return top;
+        }
+
+        private <T> List<T> list(Function<Reader, T> part) {
+            int count = in.getInt();
+            if (count == -1)
+                return null;
+            if (count < 0 || count > in.remaining())
+                throw new IllegalArgumentException("Bad list length " + count);
+            List<T> nodes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                nodes.add(part.apply(this));
+            return nodes;
+        }
+
+        private <T> Optional<T> optional(Function<Reader, T> part) {
+            return switch (in.get()) {
+                case NULL -> null;
+                case ABSENT -> Optional.empty();
+                case PRESENT -> Optional.of(part.apply(this));
+                default -> throw new IllegalArgumentException("Bad optional");
+            };
+        }
+
+        private String string() {
+            int index = in.getInt();
+            return index == -1 ? null : strings[index];
+        }
+
+        private static int id(String name) {
+            return name == null ? -1 : SymbolTable.intern(name);
+        }
+
+        private static <E> E op(E[] values, int ordinal) {
+            return ordinal == -1 ? null : values[ordinal];
+        }
+
+        private InterfaceNode interfaceNode() {
+            InterfaceNode i = new InterfaceNode();
+            i.name = string();
+            i.nameId = id(i.name);
+            i.methods = list(Reader::methodHeader);
+            return i;
+        }
+
+        private MethodHeaderNode methodHeader() {
+            MethodHeaderNode m = new MethodHeaderNode();
+            m.name = string();
+            m.nameId = id(m.name);
+            m.parameters = list(Reader::variableDeclaration);
+            m.returns = list(Reader::variableDeclaration);
+            return m;
+        }
+
+        private ClassNode classNode() {
+            ClassNode c = new ClassNode();
+            c.name = string();
+            c.nameId = id(c.name);
+            c.interfaces = list(Reader::string);
+            if (c.interfaces != null)
+                for (String name : c.interfaces)
+                    c.interfaceIds.add(id(name));
+            c.constructors = list(Reader::constructor);
+            c.methods = list(Reader::method);
+            c.members = list(Reader::member);
+            return c;
+        }
+
+        private ConstructorNode constructor() {
+            ConstructorNode c = new ConstructorNode();
+            c.parameters = list(Reader::variableDeclaration);
+            c.locals = list(Reader::variableDeclaration);
+            c.statements = list(Reader::statement);
+            return c;
+        }
+
+        private MethodDeclarationNode method() {
+            MethodDeclarationNode m = new MethodDeclarationNode();
+            m.isShared = in.get() != 0;
+            m.isPrivate = in.get() != 0;
+            m.name = string();
+            m.nameId = id(m.name);
+            m.parameters = list(Reader::variableDeclaration);
+            m.returns = list(Reader::variableDeclaration);
+            m.locals = list(Reader::variableDeclaration);
+            m.statements = list(Reader::statement);
+            return m;
+        }
+
+        private MemberNode member() {
+            MemberNode m = new MemberNode();
+            m.declaration = variableDeclaration();
+            return m;
+        }
+
+        private VariableDeclarationNode variableDeclaration() {
+            if (in.get() == NULL)
+                return null;
+            VariableDeclarationNode v = new VariableDeclarationNode();
+            v.type = string();
+            v.typeId = id(v.type);
+            v.name = string();
+            v.nameId = id(v.name);
+            v.initializer = optional(Reader::expression);
+            return v;
+        }
+
+        private StatementNode statement() {
+            int tag = in.get();
+            return switch (tag) {
+                case NULL -> null;
+                case ASSIGNMENT -> {
+                    AssignmentNode a = new AssignmentNode();
+                    a.target = (VariableReferenceNode) expression();
+                    a.expression = expression();
+                    yield a;
+                }
+                case IF -> {
+                    IfNode i = new IfNode();
+                    i.condition = expression();
+                    i.statements = list(Reader::statement);
+                    i.elseStatement = optional(r -> {
+                        ElseNode e = new ElseNode();
+                        e.statements = r.list(Reader::statement);
+                        return e;
+                    });
+                    yield i;
+                }
+                case LOOP -> {
+                    LoopNode l = new LoopNode();
+                    l.assignment = optional(r -> (VariableReferenceNode) r.expression());
+                    l.expression = expression();
+                    l.statements = list(Reader::statement);
+                    yield l;
+                }
+                case METHOD_CALL -> {
+                    MethodCallStatementNode m = new MethodCallStatementNode();
+                    m.returnValues = list(r -> (VariableReferenceNode) r.expression());
+                    m.objectName = optional(Reader::string);
+                    m.objectNameId = m.objectName == null ? -1 : id(m.objectName.orElse(null));
+                    m.methodName = string();
+                    m.methodNameId = id(m.methodName);
+                    m.parameters = list(Reader::expression);
+                    yield m;
+                }
+                default -> throw new IllegalArgumentException("Bad statement tag " + tag);
+            };
+        }
+
+        //Reads the operators down the left side of an expression in a loop, the way the Writer wrote them, then
+        //fills in their right sides from the innermost out
+        private ExpressionNode expression() {
+            List<ExpressionNode> spine = new ArrayList<>();
+            int tag = in.get();
+            while (tag == BOOLEAN_OP || tag == COMPARE || tag == MATH_OP) {
+                spine.add(switch (tag) {
+                    case BOOLEAN_OP -> {
+                        BooleanOpNode b = new BooleanOpNode();
+                        b.op = op(BooleanOpNode.BooleanOperations.values(), in.get());
+                        yield b;
+                    }
+                    case COMPARE -> {
+                        CompareNode c = new CompareNode();
+                        c.op = op(CompareNode.CompareOperations.values(), in.get());
+                        yield c;
+                    }
+                    default -> {
+                        MathOpNode m = new MathOpNode();
+                        m.op = op(MathOpNode.MathOperations.values(), in.get());
+                        yield m;
+                    }
+                });
+                tag = in.get();
+            }
+            ExpressionNode result = leaf(tag);
+            for (int i = spine.size() - 1; i >= 0; i--) {
+                switch (spine.get(i)) {
+                    case BooleanOpNode b -> {
+                        b.left = result;
+                        b.right = expression();
+                    }
+                    case CompareNode c -> {
+                        c.left = result;
+                        c.right = expression();
+                    }
+                    case MathOpNode m -> {
+                        m.left = result;
+                        m.right = expression();
+                    }
+                    default -> throw new IllegalStateException();
+                }
+                result = spine.get(i);
+            }
+            return result;
+        }
+
+        private ExpressionNode leaf(int tag) {
+            return switch (tag) {
+                case NULL -> null;
+                case BOOLEAN_LITERAL -> new BooleanLiteralNode(in.get() != 0);
+                case CHAR_LITERAL -> {
+                    CharLiteralNode c = new CharLiteralNode();
+                    c.value = in.getChar();
+                    yield c;
+                }
+                case METHOD_CALL_EXPRESSION -> {
+                    MethodCallExpressionNode m = new MethodCallExpressionNode();
+                    m.objectName = optional(Reader::string);
+                    m.objectNameId = m.objectName == null ? -1 : id(m.objectName.orElse(null));
+                    m.methodName = string();
+                    m.methodNameId = id(m.methodName);
+                    m.parameters = list(Reader::expression);
+                    yield m;
+                }
+                case NEW -> {
+                    NewNode n = new NewNode();
+                    n.className = string();
+                    n.classNameId = id(n.className);
+                    n.parameters = list(Reader::expression);
+                    yield n;
+                }
+                case NOT_OP -> {
+                    NotOpNode n = new NotOpNode();
+                    n.left = expression();
+                    yield n;
+                }
+                case NUMERIC_LITERAL -> {
+                    NumericLiteralNode n = new NumericLiteralNode();
+                    n.value = in.getFloat();
+                    yield n;
+                }
+                case STRING_LITERAL -> {
+                    StringLiteralNode s = new StringLiteralNode();
+                    s.value = string();
+                    yield s;
+                }
+                case VARIABLE_REFERENCE -> {
+                    VariableReferenceNode v = new VariableReferenceNode();
+                    v.name = string();
+                    v.nameId = id(v.name);
+                    yield v;
+                }
+                default -> throw new IllegalArgumentException("Bad expression tag " + tag);
+            };
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package Tran;
+
+import AST.TranNode;
+
+import java.util.List;
+
+//Lexes and parses one small script after another with the same Lexer, token buffer and Parser. The lexer's tables are
+//static and shared already, so what a new Lexer and Parser would cost is their buffers, which a session keeps and
+//refills. A session is for one thread at a time.
+//What a session doesn't keep from growing is SymbolTable, which is shared by the whole JVM and never forgets a name:
+//every distinct identifier in every script stays interned, at a String and a few ints each, after the script is gone.
+//Scripts that reuse the same names cost nothing there, but ones that make up new names (generated class or variable
+//names, say) grow it for as long as the JVM runs. It can't be cleared between scripts, since names are compared by
+//their ids and the ids kept in earlier trees and in static fields such as Interpreter's would then mean other names.
+public class CompileSession {
+    private final Lexer lexer;
+    private final TokenBuffer tokens;
+    private final Parser parser;
+    private boolean lexed; //Whether the tokens are from the current source
+
+    public CompileSession() {
+        lexer = new Lexer("");
+        tokens = lexer.getTokens();
+        parser = new Parser(new TranNode(), tokens);
+    }
+
+    //Moves the session on to the next script. Tokens and trees from earlier scripts stay valid.
+    public CompileSession reset(String source) {
+        lexer.reset(new TextManager(source));
+        lexed = false;
+        return this;
+    }
+
+    //The tokens of the current script. The list is refilled by the next reset, so copy it to keep it. After a syntax
+    //error the session has to be reset before it is used again.
+    public List<Token> lex() throws SyntaxErrorException {
+        if (!lexed) {
+            lexer.lexAll();
+            lexed = true;
+        }
+        return tokens;
+    }
+
+    //Parses the current script into a new TranNode
+    public TranNode parse() throws SyntaxErrorException {
+        lex();
+        TranNode top = new TranNode();
+        parser.reset(top);
+        parser.Tran();
+        return top;
+    }
+
+    public TranNode compile(String source) throws SyntaxErrorException {
+        return reset(source).parse();
+    }
+}
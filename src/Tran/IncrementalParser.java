@@ -0,0 +1,195 @@
+package Tran;
+
+import AST.ClassNode;
+import AST.InterfaceNode;
+import AST.MethodDeclarationNode;
+import AST.Node;
+import AST.TranNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Keeps the tree of a piece of text up to date as it is edited. Parsing records where every class, interface and method
+//starts and ends in the tokens. After an edit only the smallest method, or failing that the class or interface, holding
+//all of the tokens the IncrementalLexer changed is parsed again, and the new node takes the old one's place in the tree.
+//Parsing from a token only depends on the tokens from there on, so that gives the same node a full parse would, and if
+//it also ends on the old end the rest of the tree is unchanged. Otherwise everything is parsed again.
+public class IncrementalParser {
+    private final IncrementalLexer lexer;
+    private final TranNode top = new TranNode();
+    private Spans spans; //Null after an edit that did not parse, so the next one parses everything
+    private int reparsedTokens; //How many tokens the last edit actually parsed
+
+    public IncrementalParser(String text) throws SyntaxErrorException {
+        lexer = new IncrementalLexer(text);
+        parseAll();
+    }
+
+    public TranNode getTree() {
+        return top;
+    }
+
+    public String getText() {
+        return lexer.getText();
+    }
+
+    public int getReparsedTokens() {
+        return reparsedTokens;
+    }
+
+    //Replaces the text from start up to end with replacement, like StringBuilder.replace, and returns the tree, which
+    //is the same TranNode every time. If the new text does not lex or parse the edit is still made and the exception
+    //is thrown, and the tree is left as far as the parser got.
+    public TranNode replace(int start, int end, String replacement) throws SyntaxErrorException {
+        Spans old = spans;
+        spans = null;
+        lexer.replace(start, end, replacement);
+        if (old == null || !update(old))
+            parseAll();
+        return top;
+    }
+
+    private void parseAll() throws SyntaxErrorException {
+        List<Token> tokens = lexer.getTokens();
+        top.Interfaces.clear();
+        top.Classes.clear();
+        reparsedTokens = tokens.size();
+        Parser parser = new Parser(top, tokens);
+        parser.spans = new Spans();
+        parser.Tran();
+        spans = parser.spans;
+    }
+
+    //Parses just the method, class or interface around the changed tokens. False if that doesn't work out.
+    private boolean update(Spans old) {
+        int from = lexer.changedStart;
+        int oldEnd = lexer.changedOldEnd;
+        int shift = lexer.changedEnd - oldEnd;
+        if (from == oldEnd && shift == 0) { //Only comments or spacing inside a line changed
+            reparsedTokens = 0;
+            spans = old;
+            return true;
+        }
+
+        //The token a declaration or method starts at decides what gets parsed there, so it has to be before the change
+        int d = old.declarationBefore(from);
+        if (d < 0)
+            return false;
+        Span declaration = old.declarations.get(d);
+        if (oldEnd > declaration.end)
+            return false;
+
+        Parser parser = new Parser(new TranNode(), lexer.getTokens());
+        parser.spans = new Spans();
+        if (declaration.node instanceof ClassNode c) {
+            for (Span method : declaration.methods) {
+                int start = declaration.start + method.start;
+                if (from < declaration.start + method.bodyStart || oldEnd > declaration.start + method.end)
+                    continue;
+                MethodDeclarationNode node = null;
+                try {
+                    node = parser.parseMethodAt(start);
+                } catch (SyntaxErrorException | RuntimeException | StackOverflowError e) {
+                    //Parsing the class will try again
+                }
+                Span reparsed = node == null ? null : parser.spans.methods.getLast();
+                if (reparsed != null && reparsed.end == declaration.start + method.end + shift) {
+                    c.methods.set(method.index, node);
+                    method.node = node;
+                    method.bodyStart = reparsed.bodyStart - declaration.start;
+                    method.end += shift;
+                    for (int m = method.index + 1; m < declaration.methods.size(); m++)
+                        declaration.methods.get(m).move(shift);
+                    declaration.end += shift;
+                    old.move(d + 1, shift);
+                    reparsedTokens = reparsed.end - reparsed.start;
+                    spans = old;
+                    return true;
+                }
+                break;
+            }
+        }
+
+        parser.spans = new Spans();
+        ParallelParser.Declaration parsed = parser.parseDeclarationAt(declaration.start);
+        if (parsed.error() != null || parsed.end() != declaration.end + shift)
+            return false;
+        Span fresh = parser.spans.declarations.getLast();
+        if (parsed.node() instanceof ClassNode c)
+            top.Classes.set(declaration.index, c);
+        else
+            top.Interfaces.set(declaration.index, (InterfaceNode) parsed.node());
+        declaration.node = fresh.node;
+        declaration.end = fresh.end;
+        declaration.methods = fresh.methods;
+        old.move(d + 1, shift);
+        reparsedTokens = fresh.end - fresh.start;
+        spans = old;
+        return true;
+    }
+
+    //Where a class, interface or method is in the tokens. Methods are counted from the start of their class.
+    static class Span {
+        private Node node;
+        private final int index; //Where the node is in its list in the TranNode or ClassNode
+        private int start;
+        private int bodyStart; //Where a method's body starts. The same as start for a class or interface.
+        private int end; //The token after the last one
+        private List<Span> methods;
+
+        Span(Node node, int index, int start, int bodyStart, int end, List<Span> methods) {
+            this.node = node;
+            this.index = index;
+            this.start = start;
+            this.bodyStart = bodyStart;
+            this.end = end;
+            this.methods = methods;
+        }
+
+        private void move(int shift) {
+            start += shift;
+            bodyStart += shift;
+            end += shift;
+        }
+    }
+
+    //Filled in by the Parser as it finishes each method and declaration. A class's methods are finished before it is.
+    static class Spans {
+        private final List<Span> declarations = new ArrayList<>();
+        private List<Span> methods = new ArrayList<>(); //Of the class being parsed
+        private int classes;
+        private int interfaces;
+
+        void declaration(Node node, int start, int end) {
+            for (Span method : methods)
+                method.move(-start);
+            int index = node instanceof ClassNode ? classes++ : interfaces++;
+            declarations.add(new Span(node, index, start, start, end, methods));
+            methods = new ArrayList<>();
+        }
+
+        void method(MethodDeclarationNode node, int start, int bodyStart, int end) {
+            methods.add(new Span(node, methods.size(), start, bodyStart, end, List.of()));
+        }
+
+        //The last declaration that starts before the given token, or -1
+        private int declarationBefore(int position) {
+            int low = 0;
+            int high = declarations.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (declarations.get(middle).start < position)
+                    low = middle + 1;
+                else
+                    high = middle - 1;
+            }
+            return high;
+        }
+
+        private void move(int from, int shift) {
+            if (shift != 0)
+                for (int i = from; i < declarations.size(); i++)
+                    declarations.get(i).move(shift);
+        }
+    }
+}
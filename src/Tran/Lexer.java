@@ -1,243 +1,400 @@
 package Tran;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 
-public class Lexer {
+public class Lexer implements TokenSource, AutoCloseable {
+
+    //Character classes for the scanner. Every ASCII character is classified once up front; anything past ASCII is classified on the fly.
+    private static final byte OTHER = 0;
+    private static final byte LETTER = 1;
+    private static final byte DIGIT = 2;
+    private static final byte QUOTE = 3;
+    private static final byte APOSTROPHE = 4;
+    private static final byte OPEN_COMMENT = 5;
+    private static final byte NEWLINE = 6;
+    private static final byte SPACE = 7;
+    private static final byte TAB = 8;
+    private static final byte CARRIAGE_RETURN = 9;
+    private static final byte[] characterClasses = new byte[128];
+
+    //Punctuation tables indexed by character. The second table is for the operators that can be followed by '='.
+    private static final Token.TokenTypes[] punctuation = new Token.TokenTypes[128];
+    private static final Token.TokenTypes[] punctuationWithEquals = new Token.TokenTypes[128];
+
+    private static final String[] keywords = {"if", "else", "loop", "interface", "class", "implements", "new", "private", "shared", "construct"};
+    private static final Token.TokenTypes[] keywordTypes = {Token.TokenTypes.IF, Token.TokenTypes.ELSE, Token.TokenTypes.LOOP, Token.TokenTypes.INTERFACE, Token.TokenTypes.CLASS,
+            Token.TokenTypes.IMPLEMENTS, Token.TokenTypes.NEW, Token.TokenTypes.PRIVATE, Token.TokenTypes.SHARED, Token.TokenTypes.CONSTRUCT};
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++)
+            characterClasses[c] = LETTER;
+        for (char c = 'A'; c <= 'Z'; c++)
+            characterClasses[c] = LETTER;
+        for (char c = '0'; c <= '9'; c++)
+            characterClasses[c] = DIGIT;
+        characterClasses['"'] = QUOTE;
+        characterClasses['\''] = APOSTROPHE;
+        characterClasses['{'] = OPEN_COMMENT;
+        characterClasses['\n'] = NEWLINE;
+        characterClasses[' '] = SPACE;
+        characterClasses['\t'] = TAB;
+        characterClasses['\r'] = CARRIAGE_RETURN;
+
+        punctuation['='] = Token.TokenTypes.ASSIGN;
+        punctuation['('] = Token.TokenTypes.LPAREN;
+        punctuation[')'] = Token.TokenTypes.RPAREN;
+        punctuation[':'] = Token.TokenTypes.COLON;
+        punctuation['.'] = Token.TokenTypes.DOT;
+        punctuation['+'] = Token.TokenTypes.PLUS;
+        punctuation['-'] = Token.TokenTypes.MINUS;
+        punctuation['*'] = Token.TokenTypes.TIMES;
+        punctuation['/'] = Token.TokenTypes.DIVIDE;
+        punctuation['%'] = Token.TokenTypes.MODULO;
+        punctuation[','] = Token.TokenTypes.COMMA;
+        punctuation['<'] = Token.TokenTypes.LESSTHAN;
+        punctuation['>'] = Token.TokenTypes.GREATERTHAN;
+
+        punctuationWithEquals['='] = Token.TokenTypes.EQUAL;
+        punctuationWithEquals['!'] = Token.TokenTypes.NOTEQUAL;
+        punctuationWithEquals['<'] = Token.TokenTypes.LESSTHANEQUAL;
+        punctuationWithEquals['>'] = Token.TokenTypes.GREATERTHANEQUAL;
+    }
 
-    private final TextManager textManager;
-    private final HashMap<String, Token.TokenTypes> keywords = new HashMap<>();
-    private final HashMap<String, Token.TokenTypes> punctuation = new HashMap<>();
+    private TextManager textManager;
     private int lineNumber = 1;
     private int columnNumber;
     private int currentIndentationLevel;
     private int previousIndentationLevel;
-    private List<Token> tokens;
+    private final TokenBuffer tokens;
+    private int nextIndex; //The next token next() hands out
+    private boolean finished;
+    private final LineCheckpoints checkpoints; //Null unless someone wants to resume lexing partway through later
 
 
     public Lexer(String input) {
+        this(new TextManager(input));
+    }
+
+    //Lexes a UTF-8 file a chunk at a time instead of reading it into one String first. The file is closed at the end of
+    //the input or at a lexing error; close the Lexer to let go of it before then.
+    public Lexer(Path file) throws IOException {
+        this(new StreamingTextManager(Files.newBufferedReader(file, StandardCharsets.UTF_8)));
+    }
 
-        textManager = new TextManager(input);
-
-        keywords.put("if", Token.TokenTypes.IF);
-        keywords.put("else", Token.TokenTypes.ELSE);
-        keywords.put("loop", Token.TokenTypes.LOOP);
-        keywords.put("interface", Token.TokenTypes.INTERFACE);
-        keywords.put("class", Token.TokenTypes.CLASS);
-        keywords.put("implements", Token.TokenTypes.IMPLEMENTS);
-        keywords.put("new", Token.TokenTypes.NEW);
-        keywords.put("private", Token.TokenTypes.PRIVATE);
-        keywords.put("shared", Token.TokenTypes.SHARED);
-        keywords.put("construct", Token.TokenTypes.CONSTRUCT);
-
-        punctuation.put("=", Token.TokenTypes.ASSIGN);
-        punctuation.put("(", Token.TokenTypes.LPAREN);
-        punctuation.put(")", Token.TokenTypes.RPAREN);
-        punctuation.put(":", Token.TokenTypes.COLON);
-        punctuation.put(".", Token.TokenTypes.DOT);
-        punctuation.put("+", Token.TokenTypes.PLUS);
-        punctuation.put("-", Token.TokenTypes.MINUS);
-        punctuation.put("*", Token.TokenTypes.TIMES);
-        punctuation.put("/", Token.TokenTypes.DIVIDE);
-        punctuation.put("%", Token.TokenTypes.MODULO);
-        punctuation.put(",", Token.TokenTypes.COMMA);
-        punctuation.put("==", Token.TokenTypes.EQUAL);
-        punctuation.put("!=", Token.TokenTypes.NOTEQUAL);
-        punctuation.put("<", Token.TokenTypes.LESSTHAN);
-        punctuation.put("<=", Token.TokenTypes.LESSTHANEQUAL);
-        punctuation.put(">", Token.TokenTypes.GREATERTHAN);
-        punctuation.put(">=", Token.TokenTypes.GREATERTHANEQUAL);
-        punctuation.put("    ", Token.TokenTypes.INDENT);
-        punctuation.put("\t", Token.TokenTypes.INDENT);
-
-        tokens = new LinkedList<>();
+    public Lexer(TextManager textManager) {
+
+        this.textManager = textManager;
+        tokens = newBuffer();
+        checkpoints = null;
 
     }
 
+    //Picks up lexing at the text manager's position as if a line with the given number and indentation had just
+    //started, adding to tokens. Used by IncrementalLexer.
+    Lexer(TextManager textManager, TokenBuffer tokens, int lineNumber, int indentationLevel, LineCheckpoints checkpoints) {
+
+        this.textManager = textManager;
+        this.tokens = tokens;
+        this.lineNumber = lineNumber;
+        this.currentIndentationLevel = indentationLevel;
+        this.checkpoints = checkpoints;
+
+    }
+
+    //Starts over on another source, keeping the token buffer's arrays for the new tokens. Used by CompileSession.
+    void reset(TextManager textManager) {
+
+        this.textManager = textManager;
+        tokens.reset(textManager);
+        lineNumber = 1;
+        columnNumber = 0;
+        currentIndentationLevel = 0;
+        previousIndentationLevel = 0;
+        nextIndex = 0;
+        finished = false;
+
+    }
+
+    private static byte classOf(char c) {
+        if (c < 128)
+            return characterClasses[c];
+        if (Character.isLetter(c))
+            return LETTER;
+        if (Character.isDigit(c))
+            return DIGIT;
+        return OTHER;
+    }
+
     public List<Token> Lex() throws Exception {
 
-        while (!textManager.isAtEnd()) {
-            char p = textManager.peekCharacter();
-
-            if (Character.isLetter(p)) { //Reading words
-                tokens.add(readWord());
-            } else if (Character.isDigit(p)) { //Reading letters
-                tokens.add(readNumber());
-            } else if (p == '"') { //Reading quoted strings
-                tokens.add(readQuotedString());
-            } else if (p == '\'') { //Reading quoted characters
-                tokens.add(readQuotedCharacter());
-            } else if (p == '{') { //Consuming comments
-                readComment();
-            } else if (p == '\n') { //Reading newlines
-                newline(tokens);
-            } else if (p == ' ') { //Consuming whitespace/making indentation
+        lexAll();
+        return tokens;
+    }
+
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    void lexAll() throws SyntaxErrorException {
+
+        try {
+            while (!finished)
+                lexNextLexeme();
+        } catch (SyntaxErrorException | RuntimeException e) {
+            close(); //Nothing more is read after an error
+            throw e;
+        }
+    }
+
+    //Closes the source, if it is read from a file
+    @Override
+    public void close() {
+        textManager.close();
+    }
+
+    //Lexes just far enough to hand out one more token. Tokens handed out here are not part of the list Lex() returns.
+    @Override
+    public Token next() throws SyntaxErrorException {
+
+        if (!lexPending())
+            return null;
+        return tokens.get(nextIndex++);
+    }
+
+    @Override
+    public boolean nextInto(TokenBuffer buffer) throws SyntaxErrorException {
+
+        if (!lexPending())
+            return false;
+        while (nextIndex < tokens.size())
+            buffer.append(tokens, nextIndex++);
+        return true;
+    }
+
+    @Override
+    public final TokenBuffer newBuffer() {
+        return new TokenBuffer(textManager);
+    }
+
+    //Lexes until the start of the next line has been checkpointed. Returns false once the input is used up.
+    boolean lexLine() throws SyntaxErrorException {
+
+        int count = checkpoints.size();
+        while (!finished && checkpoints.size() == count)
+            lexNextLexeme();
+        return !finished;
+    }
+
+    //Makes sure there is a token that has not been handed out yet, reusing the buffer once everything in it is gone
+    private boolean lexPending() throws SyntaxErrorException {
+
+        if (nextIndex == tokens.size()) {
+            tokens.clear();
+            nextIndex = 0;
+        }
+        try {
+            while (tokens.isEmpty() && !finished)
+                lexNextLexeme();
+        } catch (SyntaxErrorException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        return nextIndex < tokens.size();
+    }
+
+    //Consumes one word, number, literal, comment, newline or run of whitespace, adding any tokens it makes
+    private void lexNextLexeme() throws SyntaxErrorException {
+
+        if (textManager.isAtEnd()) {
+            for (int i = 0; i < currentIndentationLevel; i++) {
+                tokens.add(Token.TokenTypes.DEDENT, lineNumber, columnNumber);
+            }
+            finished = true;
+            return;
+        }
+
+        textManager.mark();
+        char p = textManager.peekCharacter();
+
+        switch (classOf(p)) {
+            case LETTER -> readWord();
+            case DIGIT -> readNumber();
+            case QUOTE -> readQuotedString();
+            case APOSTROPHE -> readQuotedCharacter();
+            case OPEN_COMMENT -> readComment();
+            case NEWLINE -> newline();
+            case SPACE -> { //Consuming whitespace/making indentation
                 try {
                     if (textManager.peekCharacter(1) == ' ' && textManager.peekCharacter(2) == ' ' && textManager.peekCharacter(3) == ' ') {
                         for (int i = 0; i < 4; i++) {
                             textManager.getCharacter();
                         }
-                        tokens.add(new Token(Token.TokenTypes.INDENT, lineNumber, columnNumber));
+                        tokens.add(Token.TokenTypes.INDENT, lineNumber, columnNumber);
                     } else
                         textManager.getCharacter();
                 } catch (IndexOutOfBoundsException e) {
                     textManager.getCharacter();
                 }
-
-            } else if (p == '\t') {
-                textManager.getCharacter();
-                tokens.add(new Token(Token.TokenTypes.INDENT, lineNumber, columnNumber));
-            } else if (p == '\r') {
+            }
+            case TAB -> {
                 textManager.getCharacter();
-            } else { //Base case is punctuation
-                tokens.add(readPunctuation());
+                tokens.add(Token.TokenTypes.INDENT, lineNumber, columnNumber);
             }
+            case CARRIAGE_RETURN -> textManager.getCharacter();
+            default -> readPunctuation(); //Base case is punctuation
         }
-
-        for (int i = 0; i < currentIndentationLevel; i++) {
-            tokens.add(new Token(Token.TokenTypes.DEDENT, lineNumber, columnNumber));
-        }
-        return tokens;
     }
 
-    private Token readWord() {
+    //WORD = LETTER (LETTER | DIGIT)*
+    private void readWord() {
 
-        char c, peek = ' ';
-        String word = "";
+        int start = textManager.position;
+        int column = columnNumber;
+        int hash = 0; //Same as String.hashCode(), for the symbol table
 
         do {
-
-            c = textManager.getCharacter();
+            hash = 31 * hash + textManager.getCharacter();
             columnNumber++;
-            word = word.concat(String.valueOf(c));
+        } while (!textManager.isAtEnd() && isWordCharacter(classOf(textManager.peekCharacter())));
+
+        int length = textManager.position - start;
+        Token.TokenTypes keyword = findKeyword(start, length);
+        if (keyword != null) {
+            tokens.add(keyword, lineNumber, column);
+        } else if (textManager.retainsText()) {
+            tokens.addSlice(Token.TokenTypes.WORD, lineNumber, column, start, length, SymbolTable.intern(textManager, start, length, hash));
+        } else {
+            //The symbol table already holds a copy of the name, so a streamed word can share it
+            tokens.add(Token.TokenTypes.WORD, lineNumber, column, SymbolTable.name(SymbolTable.intern(textManager, start, length, hash)));
+        }
 
-            if (!textManager.isAtEnd())
-                peek = textManager.peekCharacter();
+    }
 
-        } while ((Character.isLetter(peek) || Character.isDigit(peek)) && !textManager.isAtEnd());
+    //In-memory sources keep just the offsets of a value. A streamed source moves on, so its values are copied now.
+    private void addValue(Token.TokenTypes type, int column, int start, int length) {
+        if (textManager.retainsText())
+            tokens.addSlice(type, lineNumber, column, start, length, -1);
+        else
+            tokens.add(type, lineNumber, column, textManager.slice(start, start + length));
+    }
 
-        if (keywords.containsKey(word)) {
-            return new Token(keywords.get(word), lineNumber, columnNumber - word.length());
-        } else {
-            return new Token(Token.TokenTypes.WORD, lineNumber, columnNumber - word.length(), word);
-        }
+    private static boolean isWordCharacter(byte characterClass) {
+        return characterClass == LETTER || characterClass == DIGIT;
+    }
 
+    //Looks the word up in the keyword table without copying it out of the source. Returns null for plain words.
+    private Token.TokenTypes findKeyword(int start, int length) {
+
+        for (int i = 0; i < keywords.length; i++) {
+            if (keywords[i].length() == length && textManager.matches(start, keywords[i]))
+                return keywordTypes[i];
+        }
+        return null;
     }
 
-    private Token readNumber() throws SyntaxErrorException {
+    //NUMBER = DIGIT (DIGIT | ".")* with at most one "."
+    private void readNumber() throws SyntaxErrorException {
 
-        char c, peek = ' ';
-        String number = "";
+        int start = textManager.position;
+        int column = columnNumber;
         boolean decimal = false;
 
         do {
 
-            c = textManager.getCharacter();
+            char c = textManager.getCharacter();
             columnNumber++;
 
-            if (decimal && c == '.')
-                throw new SyntaxErrorException("Too many decimals", lineNumber, columnNumber);
-
-            if (c == '.') //Once a decimal is read flip decimal check to true
-                decimal = true;
-            number = number.concat(String.valueOf(c));
-
-
-            if (!textManager.isAtEnd())
-                peek = textManager.peekCharacter();
+            if (c == '.') {
+                if (decimal)
+                    throw new SyntaxErrorException("Too many decimals", lineNumber, columnNumber);
+                decimal = true; //Once a decimal is read flip decimal check to true
+            }
 
-        } while (!textManager.isAtEnd() && peek != ' ' && peek != '\t' && peek != '\n' && Character.isDigit(peek) || peek == '.');
+        } while (!textManager.isAtEnd() && (classOf(textManager.peekCharacter()) == DIGIT || textManager.peekCharacter() == '.'));
 
-        return new Token(Token.TokenTypes.NUMBER, lineNumber, columnNumber - number.length(), number);
+        int length = textManager.position - start;
+        addValue(Token.TokenTypes.NUMBER, column, start, length);
 
     }
 
-    private Token readPunctuation() throws SyntaxErrorException {
+    private void readPunctuation() throws SyntaxErrorException {
 
         char c = textManager.getCharacter();
-        String punc = "";
-
-        if (c == '<' || c == '>' || c == '!' || c == '=') {
-            punc = punc.concat(String.valueOf(c));
-            if (!textManager.isAtEnd()) {
-                if (textManager.peekCharacter() == '=') {
-                    c = textManager.getCharacter();
-                    punc = punc.concat(String.valueOf(c));
-                }
-            }
-        } else {
-            punc = punc.concat(String.valueOf(c));
-        }
 
-        if (punctuation.containsKey(punc))
-            return new Token(punctuation.get(punc), lineNumber, columnNumber - punc.length());
+        if (c < 128 && punctuationWithEquals[c] != null && !textManager.isAtEnd() && textManager.peekCharacter() == '=') {
+            textManager.getCharacter();
+            tokens.add(punctuationWithEquals[c], lineNumber, columnNumber - 2);
+        } else if (c < 128 && punctuation[c] != null)
+            tokens.add(punctuation[c], lineNumber, columnNumber - 1);
         else
             throw new SyntaxErrorException("Unknown character", lineNumber, columnNumber);
 
     }
 
-    private Token readQuotedString() throws SyntaxErrorException {
+    private void readQuotedString() throws SyntaxErrorException {
 
-        char c;
-        String string = "";
         textManager.getCharacter();
         columnNumber++;
+        int start = textManager.position;
+        int firstColumn = columnNumber;
 
-        do {
+        columnNumber += textManager.skipUntil('"');
 
-            c = textManager.getCharacter();
-            columnNumber++;
-
-            if (c != '"')
-                string = string.concat(String.valueOf(c));
-
-        } while (!textManager.isAtEnd() && c != '"');
-
-        if (textManager.isAtEnd() && c != '"')
+        if (textManager.isAtEnd())
             throw new SyntaxErrorException("Unterminated string", lineNumber, columnNumber);
-        else
-            return new Token(Token.TokenTypes.QUOTEDSTRING, lineNumber, columnNumber - string.length(), string);
+
+        int length = textManager.position - start;
+        int characters = columnNumber - firstColumn; //Not the same as length when the source is bytes
+        textManager.getCharacter(); //The closing quote is not part of the value
+        columnNumber++;
+        addValue(Token.TokenTypes.QUOTEDSTRING, columnNumber - characters, start, length);
     }
 
-    private Token readQuotedCharacter() throws SyntaxErrorException {
+    private void readQuotedCharacter() throws SyntaxErrorException {
 
         char c;
-        String character = "";
         textManager.getCharacter(); //Consume the apostrophe
         columnNumber++;
+        int start = textManager.position;
 
         c = textManager.getCharacter();
         columnNumber++;
 
-        if (c != '\'')
-            character = character.concat(String.valueOf(c));
+        int characters = (c != '\'') ? 1 : 0;
+        int length = characters == 0 ? 0 : textManager.position - start;
 
         c = textManager.getCharacter();
 
         if (c != '\'')
             throw new SyntaxErrorException("Invalid quoted character", lineNumber, columnNumber);
-        else
-            return new Token(Token.TokenTypes.QUOTEDCHARACTER, lineNumber, columnNumber - character.length(), character);
+        addValue(Token.TokenTypes.QUOTEDCHARACTER, columnNumber - characters, start, length);
 
     }
 
     private void readComment() throws SyntaxErrorException {
 
-        char c = ' ';
         textManager.getCharacter();
         columnNumber++;
 
-        do {
-
-            c = textManager.getCharacter();
-            columnNumber++;
-
-        } while (!textManager.isAtEnd() && c != '}');
+        int skipped = textManager.skipUntil('}');
+        columnNumber += skipped;
 
-        if (textManager.isAtEnd() && c != '}')
+        if (textManager.isAtEnd()) {
+            if (skipped == 0)
+                textManager.getCharacter(); //A comment opened as the last character reads past the end, as it always has
             throw new SyntaxErrorException("Unterminated comment", lineNumber, columnNumber);
+        }
+        textManager.getCharacter();
+        columnNumber++;
 
     }
 
@@ -256,11 +413,10 @@ public class Lexer {
                     columnNumber = 0;
                     currentIndentationLevel = 0;
                     textManager.getCharacter();
-                    tokens.add(new Token(Token.TokenTypes.NEWLINE, ++lineNumber, columnNumber));
+                    tokens.add(Token.TokenTypes.NEWLINE, ++lineNumber, columnNumber);
                     spaceCount = 0;
                 } else if (textManager.peekCharacter() == ' ') {
-                    textManager.getCharacter();
-                    spaceCount++;
+                    spaceCount += textManager.skipWhile(' ');
                 }
 
             } while (!textManager.isAtEnd() && textManager.peekCharacter() == '\t' || textManager.peekCharacter() == ' ' || textManager.peekCharacter() == '\n');
@@ -276,16 +432,16 @@ public class Lexer {
         return currentIndentationLevel;
     }
 
-    private void newline(List<Token> tokens) throws SyntaxErrorException {
+    private void newline() throws SyntaxErrorException {
 
         lineNumber++;
         columnNumber = 0;
-        tokens.add(new Token(Token.TokenTypes.NEWLINE, lineNumber, columnNumber));
+        tokens.add(Token.TokenTypes.NEWLINE, lineNumber, columnNumber);
         textManager.getCharacter();
 
         if (textManager.isAtEnd()) {
             for (int i = 0; i < currentIndentationLevel; i++)
-                tokens.add(new Token(Token.TokenTypes.DEDENT, lineNumber, columnNumber));
+                tokens.add(Token.TokenTypes.DEDENT, lineNumber, columnNumber);
             currentIndentationLevel = 0;
             return;
         }
@@ -299,19 +455,22 @@ public class Lexer {
 
             if (currentIndentationLevel == -1) {
                 for (int i = 0; i < previousIndentationLevel; i++)
-                    tokens.add(new Token(Token.TokenTypes.DEDENT, lineNumber, columnNumber));
+                    tokens.add(Token.TokenTypes.DEDENT, lineNumber, columnNumber);
             }
             else if (currentIndentationLevel > previousIndentationLevel) {
 
                 for (int i = previousIndentationLevel; i < currentIndentationLevel; i++) {
-                    tokens.add(new Token(Token.TokenTypes.INDENT, lineNumber, columnNumber));
+                    tokens.add(Token.TokenTypes.INDENT, lineNumber, columnNumber);
                 }
 
             } else if (currentIndentationLevel < previousIndentationLevel) {
                 for (int i = previousIndentationLevel; i > currentIndentationLevel; i--) {
-                    tokens.add(new Token(Token.TokenTypes.DEDENT, lineNumber, columnNumber));
+                    tokens.add(Token.TokenTypes.DEDENT, lineNumber, columnNumber);
                 }
             }
+
+            if (checkpoints != null && currentIndentationLevel != -1)
+                checkpoints.add(textManager.position, tokens.size(), lineNumber, currentIndentationLevel);
         }
     }
 }
@@ -0,0 +1,96 @@
+package Tran;
+
+import java.util.Arrays;
+
+//The lexer's state at the start of each line: where the line's first lexeme starts, how many tokens came before it,
+//the line number and the indentation level. A Lexer can pick up from any of them.
+class LineCheckpoints {
+    private int[] offsets = new int[64];
+    private int[] tokenIndexes = new int[64];
+    private int[] lines = new int[64];
+    private int[] indentations = new int[64];
+    private int size;
+
+    void add(int offset, int tokenIndex, int line, int indentation) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            tokenIndexes = Arrays.copyOf(tokenIndexes, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+            indentations = Arrays.copyOf(indentations, size * 2);
+        }
+        offsets[size] = offset;
+        tokenIndexes[size] = tokenIndex;
+        lines[size] = line;
+        indentations[size] = indentation;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int offset(int i) {
+        return offsets[i];
+    }
+
+    int tokenIndex(int i) {
+        return tokenIndexes[i];
+    }
+
+    int line(int i) {
+        return lines[i];
+    }
+
+    int indentation(int i) {
+        return indentations[i];
+    }
+
+    //The last checkpoint that starts before offset, or the first one if none do
+    int lastBefore(int offset) {
+        int i = Arrays.binarySearch(offsets, 0, size, offset);
+        if (i < 0)
+            i = -i - 1;
+        return Math.max(0, i - 1);
+    }
+
+    //The checkpoint at exactly offset, or -1
+    int find(int offset) {
+        int i = Arrays.binarySearch(offsets, 0, size, offset);
+        return i >= 0 ? i : -1;
+    }
+
+    void removeLast() {
+        size--;
+    }
+
+    //Replaces checkpoints from to (exclusive) with those of replacement, whose token indexes move by tokenBase. The
+    //checkpoints after them move by the shifts, all of them, as in TokenBuffer.splice().
+    void splice(int from, int to, LineCheckpoints replacement, int tokenBase, int offsetShift, int tokenShift, int lineShift) {
+        int count = replacement.size;
+        int tail = size - to;
+        int newSize = from + count + tail;
+        if (newSize > offsets.length) {
+            int capacity = Math.max(offsets.length * 2, newSize);
+            offsets = Arrays.copyOf(offsets, capacity);
+            tokenIndexes = Arrays.copyOf(tokenIndexes, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            indentations = Arrays.copyOf(indentations, capacity);
+        }
+        System.arraycopy(offsets, to, offsets, from + count, tail);
+        System.arraycopy(tokenIndexes, to, tokenIndexes, from + count, tail);
+        System.arraycopy(lines, to, lines, from + count, tail);
+        System.arraycopy(indentations, to, indentations, from + count, tail);
+        for (int i = from + count; i < newSize; i++) {
+            offsets[i] += offsetShift;
+            tokenIndexes[i] += tokenShift;
+            lines[i] += lineShift;
+        }
+
+        System.arraycopy(replacement.offsets, 0, offsets, from, count);
+        System.arraycopy(replacement.lines, 0, lines, from, count);
+        System.arraycopy(replacement.indentations, 0, indentations, from, count);
+        for (int i = 0; i < count; i++)
+            tokenIndexes[from + i] = replacement.tokenIndexes[i] + tokenBase;
+        size = newSize;
+    }
+}
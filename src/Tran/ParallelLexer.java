@@ -0,0 +1,134 @@
+package Tran;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+//Lexes a big program on a ForkJoin pool. A top-level class or interface starts at column 0 right after a newline, and
+//the lexer is always back at indentation level 0 there, so the text can be cut in front of one and the pieces lexed by
+//their own Lexers. The pieces come out exactly as one Lexer would have made them, apart from line numbers, which are
+//fixed up when the pieces are joined.
+public class ParallelLexer {
+
+    //Pieces smaller than this cost more to hand out than to lex
+    private static final int MINIMUM_CHUNK = 64 * 1024;
+
+    private final String text;
+    private final ForkJoinPool pool;
+
+    public ParallelLexer(String input) {
+        this(input, ForkJoinPool.commonPool());
+    }
+
+    public ParallelLexer(String input, ForkJoinPool pool) {
+        this.text = input;
+        this.pool = pool;
+    }
+
+    public List<Token> Lex() throws SyntaxErrorException {
+
+        List<Chunk> chunks = findChunks();
+        List<ForkJoinTask<?>> lexes = new ArrayList<>();
+        for (Chunk chunk : chunks)
+            lexes.add(ForkJoinTask.adapt(chunk));
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(lexes)));
+
+        //Finding the cuts didn't look for comments and literals, so a cut can land inside one. Then the piece before
+        //it runs off its end unfinished. Lexing it again joined to the next piece puts the cut back. Any other error
+        //is real, and as every piece before it was fine, it is the first one in the text.
+        int line = 1;
+        int count = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            while (chunk.error != null && chunk.ranOffEnd && i + 1 < chunks.size()) {
+                chunk = new Chunk(chunk.start, chunks.remove(i + 1).end);
+                chunk.run();
+                chunks.set(i, chunk);
+            }
+            if (chunk.error instanceof SyntaxErrorException syntaxError)
+                throw new SyntaxErrorException(syntaxError.getMessage(), syntaxError.getLineNumber() + line - 1, syntaxError.getCharacterPosition());
+            if (chunk.error != null)
+                throw (RuntimeException) chunk.error;
+            chunk.at = count;
+            chunk.lineShift = line - 1;
+            count += chunk.tokens.size();
+            line += chunk.lines - 1;
+        }
+
+        TokenBuffer tokens = new TokenBuffer(new TextManager(text));
+        tokens.extend(count);
+        List<ForkJoinTask<?>> copies = new ArrayList<>();
+        for (Chunk chunk : chunks)
+            copies.add(ForkJoinTask.adapt(() -> chunk.tokens.copyInto(tokens, chunk.at, chunk.lineShift)));
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(copies)));
+        return tokens;
+    }
+
+    //One piece of the text, lexed as if it started on line 1
+    private class Chunk implements Runnable {
+        private final int start;
+        private final int end;
+        private TokenBuffer tokens;
+        private int lines; //The line the lexer had reached at the end
+        private Exception error;
+        private boolean ranOffEnd; //The error happened at the end of the piece
+        private int at; //Where the tokens go in the whole stream
+        private int lineShift;
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            TextManager part = new TextManager(text, start, end);
+            tokens = new TokenBuffer(part);
+            Lexer lexer = new Lexer(part, tokens, 1, 0, null);
+            try {
+                lexer.lexAll();
+            } catch (SyntaxErrorException | RuntimeException e) {
+                error = e;
+                ranOffEnd = part.position >= end;
+            }
+            lines = lexer.getLineNumber();
+        }
+    }
+
+    //Cuts the text into about four pieces per thread, each starting at a class or interface
+    private List<Chunk> findChunks() {
+
+        int pieces = Math.max(1, Math.min(pool.getParallelism() * 4, text.length() / MINIMUM_CHUNK));
+        List<Chunk> chunks = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i < pieces; i++) {
+            int cut = nextDeclaration(Math.max(start, (int) ((long) text.length() * i / pieces)));
+            if (cut < 0)
+                break;
+            chunks.add(new Chunk(start, cut));
+            start = cut;
+        }
+        chunks.add(new Chunk(start, text.length()));
+        return chunks;
+    }
+
+    //The start of the first line after from that begins with class or interface, or -1
+    private int nextDeclaration(int from) {
+
+        int i = from;
+        while (true) {
+            int newline = text.indexOf('\n', i);
+            if (newline < 0)
+                return -1;
+            if (isKeywordAt(newline + 1, "class") || isKeywordAt(newline + 1, "interface"))
+                return newline + 1;
+            i = newline + 1;
+        }
+    }
+
+    private boolean isKeywordAt(int i, String keyword) {
+        int after = i + keyword.length();
+        return text.startsWith(keyword, i) && (after == text.length() || !Character.isLetterOrDigit(text.charAt(after)));
+    }
+}
@@ -0,0 +1,137 @@
+package Tran;
+
+import AST.Node;
+import AST.TranNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+//Parses a program with many classes on a ForkJoin pool. Every class and interface that starts at indentation level 0
+//is parsed on its own by a worker, while one Parser goes through the program in order as usual and takes each one ready
+//made as it gets to it. Parsing a declaration only depends on where it starts, so what a worker made is exactly what
+//that Parser would have made there, and errors come out in the same order. Should the scan for declarations guess
+//wrong, the Parser never gets to that token and parses the stretch itself.
+public class ParallelParser {
+
+    //Pieces with fewer tokens than this cost more to hand out than to parse
+    private static final int MINIMUM_CHUNK = 4096;
+
+    private final TranNode top;
+    private final TokenBuffer tokens;
+    private final ForkJoinPool pool;
+
+    public ParallelParser(TranNode top, List<Token> tokens) {
+        this(top, tokens, ForkJoinPool.commonPool());
+    }
+
+    public ParallelParser(TranNode top, List<Token> tokens, ForkJoinPool pool) {
+        this.top = top;
+        this.tokens = TokenBuffer.of(tokens);
+        this.pool = pool;
+    }
+
+    public void Tran() throws SyntaxErrorException {
+        Parser parser = new Parser(top, tokens);
+        int[] starts = findDeclarations();
+        int pieces = Math.min(pool.getParallelism() * 4, tokens.size() / MINIMUM_CHUNK);
+        if (starts.length > 1 && pieces > 1)
+            parser.prepared = new Declarations(starts, Math.min(pieces, starts.length));
+        parser.Tran();
+    }
+
+    //Where every class and interface at indentation level 0 starts
+    private int[] findDeclarations() {
+        int[] starts = new int[16];
+        int count = 0;
+        int depth = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            switch (tokens.type(i)) {
+                case INDENT -> depth++;
+                case DEDENT -> depth--;
+                case CLASS, INTERFACE -> {
+                    if (depth == 0) {
+                        if (count == starts.length)
+                            starts = Arrays.copyOf(starts, count * 2);
+                        starts[count++] = i;
+                    }
+                }
+                default -> { }
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    //A class or interface parsed by a worker: the node and the token after it, or what went wrong
+    record Declaration(Node node, int end, Throwable error) {
+
+        //The node, or the error the Parser would have run into
+        Node get() throws SyntaxErrorException {
+            if (error instanceof SyntaxErrorException syntaxError)
+                throw syntaxError;
+            if (error instanceof RuntimeException runtimeError)
+                throw runtimeError;
+            if (error != null)
+                throw (Error) error;
+            return node;
+        }
+    }
+
+    //The declarations being parsed, in pieces of neighbouring ones with about the same number of tokens each
+    class Declarations {
+        private final int[] starts;
+        private final Declaration[] parsed;
+        private final ForkJoinTask<?>[] chunks;
+        private final int[] chunkOf; //Which piece each declaration is in
+
+        Declarations(int[] starts, int pieces) {
+            this.starts = starts;
+            parsed = new Declaration[starts.length];
+            chunkOf = new int[starts.length];
+            List<Chunk> found = new ArrayList<>();
+            int first = 0;
+            for (int i = 1; i <= starts.length; i++) {
+                int end = i < starts.length ? starts[i] : tokens.size();
+                if (i == starts.length || (long) (end - starts[first]) * pieces >= tokens.size()) {
+                    found.add(new Chunk(first, i));
+                    first = i;
+                }
+            }
+            chunks = new ForkJoinTask<?>[found.size()];
+            for (int c = 0; c < chunks.length; c++) {
+                Arrays.fill(chunkOf, found.get(c).first, found.get(c).end, c);
+                chunks[c] = ForkJoinTask.adapt(found.get(c));
+                pool.execute(chunks[c]);
+            }
+        }
+
+        //What was parsed from the given token, waiting for it if need be, or null if no declaration starts there
+        Declaration at(int position) {
+            int i = Arrays.binarySearch(starts, position);
+            if (i < 0)
+                return null;
+            chunks[chunkOf[i]].join();
+            return parsed[i];
+        }
+
+        //Declarations first up to end, parsed one after another by one Parser
+        private class Chunk implements Runnable {
+            private final int first;
+            private final int end;
+
+            Chunk(int first, int end) {
+                this.first = first;
+                this.end = end;
+            }
+
+            @Override
+            public void run() {
+                Parser parser = new Parser(new TranNode(), tokens);
+                for (int i = first; i < end; i++)
+                    parsed[i] = parser.parseDeclarationAt(starts[i]);
+            }
+        }
+    }
+}
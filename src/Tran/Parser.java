@@ -6,15 +6,89 @@ import java.util.*;
 
 public class Parser {
 
+    //Precedence levels of the math operators. Higher binds tighter.
+    private static final int ADDITIVE = 1;
+    private static final int MULTIPLICATIVE = 2;
+
     private final TokenManager tokenManager;
-    private final TranNode root;
+    private TranNode root;
+    private boolean lazyMethodBodies;
+    private BodyCompiler bodyCompiler;
+    ParallelParser.Declarations prepared; //Classes and interfaces ParallelParser has parsed ahead, or null
+    IncrementalParser.Spans spans; //Where classes, interfaces and methods start and end, kept for IncrementalParser, or null
 
     public Parser(TranNode top, List<Token> tokens) {
         root = top;
         tokenManager = new TokenManager(tokens);
     }
 
+    //Parses while the source (usually a Lexer) is still producing tokens
+    public Parser(TranNode top, TokenSource tokens) {
+        root = top;
+        tokenManager = new TokenManager(tokens);
+    }
+
+    //In lazy mode a method's body is only skipped over and parsed the first time something reads it (see
+    //MethodDeclarationNode.parseBody), which saves the time and memory for the ones never called. Syntax errors in a
+    //body then only come up at that point, as a LazyBodyException. The tokens have to stay as they are until then, so
+    //tokens pulled from a TokenSource are all kept rather than dropped once they are parsed.
+    public void setLazyMethodBodies(boolean lazy) {
+        lazyMethodBodies = lazy;
+        tokenManager.keepAll(lazy);
+    }
+
+    //Hands every method and constructor to the compiler as soon as its body is parsed, so a front end can turn the body
+    //into something it runs and drop the statements before the next body is parsed. With lazy method bodies a method is
+    //handed over when its body is parsed at last.
+    public void setBodyCompiler(BodyCompiler compiler) {
+        bodyCompiler = compiler;
+    }
+
+    //Parses into top next time, from the start of the tokens. Used by CompileSession once it has refilled them.
+    void reset(TranNode top) {
+        root = top;
+        tokenManager.reset();
+    }
+
+    //Parses the class or interface that starts at the given token on its own, for ParallelParser. It comes out exactly
+    //as parseDeclarations() would make it on reaching that token, error included.
+    ParallelParser.Declaration parseDeclarationAt(int position) {
+        tokenManager.seek(position);
+        try {
+            Node node = tokenManager.check(Token.TokenTypes.INTERFACE) ? parseInterface().get() : parseClass().get();
+            return new ParallelParser.Declaration(node, tokenManager.position(), null);
+        } catch (SyntaxErrorException | RuntimeException | StackOverflowError e) {
+            return new ParallelParser.Declaration(null, position, e);
+        }
+    }
+
+    //Parses the method that starts at the given token on its own, for IncrementalParser. Null if there isn't one.
+    MethodDeclarationNode parseMethodAt(int position) throws SyntaxErrorException {
+        tokenManager.seek(position);
+        return parseMethodDeclaration().orElse(null);
+    }
+
+    //Takes the class or interface ParallelParser parsed from the next token, if it is one of that type, and moves past it
+    private Node takePrepared(Token.TokenTypes type) throws SyntaxErrorException {
+        if (prepared == null || !tokenManager.check(type))
+            return null;
+        ParallelParser.Declaration declaration = prepared.at(tokenManager.position());
+        if (declaration == null)
+            return null;
+        Node node = declaration.get();
+        tokenManager.seek(declaration.end());
+        return node;
+    }
+
     public void Tran() throws SyntaxErrorException {
+        try {
+            parseDeclarations();
+        } catch (TokenManager.SourceException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void parseDeclarations() throws SyntaxErrorException {
 
         while (!tokenManager.done()) {
 
@@ -36,29 +110,37 @@ public class Parser {
     //Class =  "class" IDENTIFIER ( "implements" IDENTIFIER ( "," IDENTIFIER )* )? NEWLINE INDENT ( Constructor | MethodDeclaration | Member )* DEDENT
     private Optional<ClassNode> parseClass() throws SyntaxErrorException {
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.CLASS).isPresent()) {
+        Node preparedClass = takePrepared(Token.TokenTypes.CLASS);
+        if (preparedClass != null)
+            return Optional.of((ClassNode) preparedClass);
+
+        int start = tokenManager.position();
+        if (tokenManager.accept(Token.TokenTypes.CLASS)) {
 
             ClassNode c = new ClassNode();
 
-            Optional<Token> name = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-            if (name.isEmpty())
+            if (!tokenManager.check(Token.TokenTypes.WORD))
                 throw new SyntaxErrorException("Class without identifier", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
-            c.name = name.get().getValue();
+            c.name = tokenManager.value();
+            c.nameId = tokenManager.symbol();
+            tokenManager.advance();
 
-            if (tokenManager.matchAndRemove(Token.TokenTypes.IMPLEMENTS).isPresent()) {
+            if (tokenManager.accept(Token.TokenTypes.IMPLEMENTS)) {
 
-                Optional<Token> interfaceName = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-                if (interfaceName.isEmpty())
+                if (!tokenManager.check(Token.TokenTypes.WORD))
                     throw new SyntaxErrorException("Implements without interface", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
-                c.interfaces.add(interfaceName.get().getValue());
+                c.interfaces.add(tokenManager.value());
+                c.interfaceIds.add(tokenManager.symbol());
+                tokenManager.advance();
 
-                while (tokenManager.matchAndRemove(Token.TokenTypes.COMMA).isPresent()) {
-                    interfaceName = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-                    if (interfaceName.isEmpty())
+                while (tokenManager.accept(Token.TokenTypes.COMMA)) {
+                    if (!tokenManager.check(Token.TokenTypes.WORD))
                         throw new SyntaxErrorException("Missing interface name after comma", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
-                    c.interfaces.add(interfaceName.get().getValue());
+                    c.interfaces.add(tokenManager.value());
+                    c.interfaceIds.add(tokenManager.symbol());
+                    tokenManager.advance();
                 }
             }
 
@@ -79,6 +161,8 @@ public class Parser {
                 consumeWhitespace();
 
             }
+            if (spans != null)
+                spans.declaration(c, start, tokenManager.position());
             return Optional.of(c);
         } else
             return Optional.empty();
@@ -87,17 +171,17 @@ public class Parser {
     //Constructor = "construct" "(" ParameterVariableDeclarations ")" NEWLINE MethodBody
     private Optional<ConstructorNode> parseConstructor() throws SyntaxErrorException {
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.CONSTRUCT).isPresent()) {
+        if (tokenManager.accept(Token.TokenTypes.CONSTRUCT)) {
 
             ConstructorNode c = new ConstructorNode();
 
-            if (tokenManager.matchAndRemove(Token.TokenTypes.LPAREN).isEmpty())
+            if (!tokenManager.accept(Token.TokenTypes.LPAREN))
                 throw new SyntaxErrorException("LPAREN expected in constructor header", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
             Optional<List<VariableDeclarationNode>> parameters = parseVariableDeclarations();
             parameters.ifPresent(variableDeclarationNodes -> c.parameters.addAll(variableDeclarationNodes));
 
-            if (tokenManager.matchAndRemove(Token.TokenTypes.RPAREN).isEmpty())
+            if (!tokenManager.accept(Token.TokenTypes.RPAREN))
                 throw new SyntaxErrorException("RPAREN expected in constructor header", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
             requireNewline();
@@ -118,6 +202,8 @@ public class Parser {
 
             }
 
+            if (bodyCompiler != null)
+                bodyCompiler.compile(c);
             return Optional.of(c);
         }
         return Optional.empty();
@@ -141,15 +227,17 @@ public class Parser {
     private Optional<MethodDeclarationNode> parseMethodDeclaration() throws SyntaxErrorException {
 
         MethodDeclarationNode md = new MethodDeclarationNode();
+        int start = tokenManager.position();
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.PRIVATE).isPresent())
+        if (tokenManager.accept(Token.TokenTypes.PRIVATE))
             md.isPrivate = true;
-        if (tokenManager.matchAndRemove(Token.TokenTypes.SHARED).isPresent())
+        if (tokenManager.accept(Token.TokenTypes.SHARED))
             md.isShared = true;
 
         Optional<MethodHeaderNode> mhn = parseMethodHeader();
         if (mhn.isPresent()) {
             md.name = mhn.get().name;
+            md.nameId = mhn.get().nameId;
             md.parameters = mhn.get().parameters;
             md.returns = mhn.get().returns;
         } else
@@ -157,8 +245,22 @@ public class Parser {
 
         //MethodBody = INDENT ( VariableDeclarations )*  Statement* DEDENT
 
+        int bodyStart = tokenManager.position();
         requireIndent();
 
+        if (!lazyMethodBodies || !skipMethodBody(md)) {
+            parseMethodBody(md);
+            if (bodyCompiler != null)
+                bodyCompiler.compile(md);
+        }
+
+        if (spans != null)
+            spans.method(md, start, bodyStart, tokenManager.position());
+        return Optional.of(md);
+    }
+
+    private void parseMethodBody(MethodDeclarationNode md) throws SyntaxErrorException {
+
         while (checkDedent() && !tokenManager.done()) {
 
             Optional<List<VariableDeclarationNode>> locals = parseVariableDeclarations();
@@ -170,8 +272,39 @@ public class Parser {
             consumeWhitespace();
 
         }
+    }
 
-        return Optional.of(md);
+    //Moves past the DEDENT that closes the body and leaves md to parse it later. If the body isn't closed before the end
+    //of the tokens it is parsed now instead, for the error.
+    private boolean skipMethodBody(MethodDeclarationNode md) {
+        int depth = 1;
+        for (int i = 0; ; i++) {
+            Token.TokenTypes type = tokenManager.peekType(i);
+            if (type == null)
+                return false;
+            if (type == Token.TokenTypes.INDENT)
+                depth++;
+            else if (type == Token.TokenTypes.DEDENT && --depth == 0) {
+                int start = tokenManager.position();
+                TokenBuffer bodyTokens = tokenManager.tokens();
+                BodyCompiler compiler = bodyCompiler;
+                md.unparsedBody = () -> {
+                    md.locals = new ArrayList<>();
+                    md.statements = new ArrayList<>();
+                    Parser parser = new Parser(new TranNode(), bodyTokens);
+                    parser.tokenManager.seek(start);
+                    try {
+                        parser.parseMethodBody(md);
+                    } catch (SyntaxErrorException e) {
+                        throw new LazyBodyException(md.name, e);
+                    }
+                    if (compiler != null)
+                        compiler.compile(md);
+                };
+                tokenManager.seek(start + i + 1);
+                return true;
+            }
+        }
     }
 
     //MethodCall = (VariableReference ( "," VariableReference )* "=")? MethodCallExpression NEWLINE
@@ -182,7 +315,7 @@ public class Parser {
         Optional<VariableReferenceNode> varRef = parseVariableReference();
         varRef.ifPresent(variableReferenceNode -> returnValuesTemp.get().add(variableReferenceNode));
 
-        while (tokenManager.matchAndRemove(Token.TokenTypes.COMMA).isPresent()) {
+        while (tokenManager.accept(Token.TokenTypes.COMMA)) {
 
             varRef = parseVariableReference();
             if (varRef.isPresent())
@@ -192,7 +325,7 @@ public class Parser {
 
         }
 
-        if (!returnValuesTemp.get().isEmpty() && tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN).isEmpty())
+        if (!returnValuesTemp.get().isEmpty() && !tokenManager.accept(Token.TokenTypes.ASSIGN))
             throw new SyntaxErrorException("Assignment expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
         Optional<MethodCallExpressionNode> mce = parseMethodCallExpression();
@@ -214,22 +347,27 @@ public class Parser {
         if (!tokenManager.nextTwoTokensMatch(Token.TokenTypes.WORD, Token.TokenTypes.DOT) && !tokenManager.nextTwoTokensMatch(Token.TokenTypes.WORD, Token.TokenTypes.LPAREN))
             return Optional.empty();
 
-        Optional<Token> name = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
         MethodCallExpressionNode mce = new MethodCallExpressionNode();
-        if (tokenManager.matchAndRemove(Token.TokenTypes.DOT).isPresent()) {
-
-            mce.objectName = Optional.of(name.get().getValue());
-            name = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-            if (name.isEmpty())
+        String name = tokenManager.value();
+        int nameId = tokenManager.symbol();
+        tokenManager.advance();
+        if (tokenManager.accept(Token.TokenTypes.DOT)) {
+
+            mce.objectName = Optional.of(name);
+            mce.objectNameId = nameId;
+            if (!tokenManager.check(Token.TokenTypes.WORD))
                 throw new SyntaxErrorException("Method identifier expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
-            mce.methodName = name.get().getValue();
+            mce.methodName = tokenManager.value();
+            mce.methodNameId = tokenManager.symbol();
+            tokenManager.advance();
 
         } else {
             mce.objectName = Optional.empty();
-            mce.methodName = name.get().getValue();
+            mce.methodName = name;
+            mce.methodNameId = nameId;
         }
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.LPAREN).isEmpty())
+        if (!tokenManager.accept(Token.TokenTypes.LPAREN))
             throw new SyntaxErrorException("LPAREN expected after method name", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
         Optional<ExpressionNode> expression = parseExpression();
@@ -237,7 +375,7 @@ public class Parser {
 
             mce.parameters.add(expression.get());
 
-            while (tokenManager.matchAndRemove(Token.TokenTypes.COMMA).isPresent()) {
+            while (tokenManager.accept(Token.TokenTypes.COMMA)) {
 
                 expression = parseExpression();
                 if (expression.isEmpty())
@@ -247,7 +385,7 @@ public class Parser {
             }
         }
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.RPAREN).isEmpty())
+        if (!tokenManager.accept(Token.TokenTypes.RPAREN))
             throw new SyntaxErrorException("RPAREN expected after methodname", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
         return Optional.of(mce);
@@ -332,7 +470,7 @@ public class Parser {
         Optional<VariableReferenceNode> varRef = parseVariableReference();
         varRef.ifPresent(variableReferenceNode -> assignmentNode.target = variableReferenceNode);
 
-        tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN);
+        tokenManager.accept(Token.TokenTypes.ASSIGN);
 
         Optional<ExpressionNode> expression = parseExpression();
         if (expression.isPresent())
@@ -349,7 +487,7 @@ public class Parser {
     //If = "if" BoolExpTerm NEWLINE Statements ("else" NEWLINE (Statement | Statements))?
     private Optional<IfNode> parseIf() throws SyntaxErrorException {
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.IF).isPresent()) {
+        if (tokenManager.accept(Token.TokenTypes.IF)) {
 
             IfNode ifNode = new IfNode();
 
@@ -367,7 +505,7 @@ public class Parser {
             else
                 throw new SyntaxErrorException("Statements expected in if body", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
-            if (tokenManager.matchAndRemove(Token.TokenTypes.ELSE).isPresent()) {
+            if (tokenManager.accept(Token.TokenTypes.ELSE)) {
 
                 requireNewline();
 
@@ -391,13 +529,13 @@ public class Parser {
     //Loop = "loop" (VariableReference "=" )?  ( BoolExpTerm ) NEWLINE Statements
     private Optional<LoopNode> parseLoop() throws SyntaxErrorException {
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.LOOP).isPresent()) {
+        if (tokenManager.accept(Token.TokenTypes.LOOP)) {
 
             LoopNode loopNode = new LoopNode();
 
-            if (tokenManager.peek(0).get().getType().equals(Token.TokenTypes.WORD) && tokenManager.peek(1).get().getType().equals(Token.TokenTypes.ASSIGN) && tokenManager.peek(2).get().getType().equals(Token.TokenTypes.WORD)) {
+            if (tokenManager.check(0, Token.TokenTypes.WORD) && tokenManager.check(1, Token.TokenTypes.ASSIGN) && tokenManager.check(2, Token.TokenTypes.WORD)) {
                 Optional<VariableReferenceNode> varRef = parseVariableReference();
-                tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN);
+                tokenManager.accept(Token.TokenTypes.ASSIGN);
                 loopNode.assignment = Optional.of(varRef.get());
             }
 
@@ -433,20 +571,10 @@ public class Parser {
             CompareNode boolOp = new CompareNode();
             boolOp.left = expression.get();
 
-            if (tokenManager.matchAndRemove(Token.TokenTypes.EQUAL).isPresent())
-                boolOp.op = CompareNode.CompareOperations.eq;
-            else if (tokenManager.matchAndRemove(Token.TokenTypes.LESSTHAN).isPresent())
-                boolOp.op = CompareNode.CompareOperations.lt;
-            else if (tokenManager.matchAndRemove(Token.TokenTypes.GREATERTHAN).isPresent())
-                boolOp.op = CompareNode.CompareOperations.gt;
-            else if (tokenManager.matchAndRemove(Token.TokenTypes.LESSTHANEQUAL).isPresent())
-                boolOp.op = CompareNode.CompareOperations.le;
-            else if (tokenManager.matchAndRemove(Token.TokenTypes.GREATERTHANEQUAL).isPresent())
-                boolOp.op = CompareNode.CompareOperations.ge;
-            else if (tokenManager.matchAndRemove(Token.TokenTypes.NOTEQUAL).isPresent())
-                boolOp.op = CompareNode.CompareOperations.ne;
-            else
+            boolOp.op = compareOperation(tokenManager.peekType());
+            if (boolOp.op == null)
                 return expression;
+            tokenManager.advance();
 
             expression = parseExpression();
             if (expression.isPresent())
@@ -466,67 +594,90 @@ public class Parser {
 
     }
 
+    //The comparison a token stands for, or null if it isn't one
+    private static CompareNode.CompareOperations compareOperation(Token.TokenTypes type) {
+        if (type == null)
+            return null;
+        return switch (type) {
+            case EQUAL -> CompareNode.CompareOperations.eq;
+            case LESSTHAN -> CompareNode.CompareOperations.lt;
+            case GREATERTHAN -> CompareNode.CompareOperations.gt;
+            case LESSTHANEQUAL -> CompareNode.CompareOperations.le;
+            case GREATERTHANEQUAL -> CompareNode.CompareOperations.ge;
+            case NOTEQUAL -> CompareNode.CompareOperations.ne;
+            default -> null;
+        };
+    }
+
     //Expression = Term ( ("+"|"-") Term )*
+    //Term = Factor ( ("*"|"/"|"%") Factor )*
+    //Parsed by precedence climbing without recursion. Factors and operators wait on stacks, and an operator is applied
+    //as soon as the one after it binds no tighter, so both levels come out left associative and a chain of any length
+    //takes no more Java stack than a single factor. Only parentheses nest.
     private Optional<ExpressionNode> parseExpression() throws SyntaxErrorException {
 
-        Optional<ExpressionNode> expression = parseTerm();
-        if (expression.isEmpty()) return Optional.empty();
-
-        while (true) {
-            MathOpNode.MathOperations op = null;
-            if (tokenManager.matchAndRemove(Token.TokenTypes.PLUS).isPresent())
-                op = MathOpNode.MathOperations.add;
-            else if (tokenManager.matchAndRemove(Token.TokenTypes.MINUS).isPresent())
-                op = MathOpNode.MathOperations.subtract;
-            else break;
-
-            MathOpNode mathOp = new MathOpNode();
-            mathOp.op = op;
-            mathOp.left = expression.get();
-            Optional<ExpressionNode> right = parseExpression();
-            if (right.isEmpty())
-                throw new SyntaxErrorException("Expression expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
-            mathOp.right = right.get();
-            expression = Optional.of(mathOp);
-        }
-        return expression;
-    }
+        Optional<ExpressionNode> first = parseFactor();
+        if (first.isEmpty())
+            return Optional.empty();
+        if (precedence(tokenManager.peekType()) == 0)
+            return first; //Most expressions are a single factor
+
+        List<ExpressionNode> operands = new ArrayList<>();
+        List<Token.TokenTypes> operators = new ArrayList<>();
+        operands.add(first.get());
+
+        Token.TokenTypes operator;
+        while (precedence(operator = tokenManager.peekType()) > 0) {
+            tokenManager.advance();
+            while (!operators.isEmpty() && precedence(operators.getLast()) >= precedence(operator))
+                applyOperator(operands, operators);
+            operators.add(operator);
 
-    //Term = Factor ( ("*"|"/"|"%") Factor )*
-    private Optional<ExpressionNode> parseTerm() throws SyntaxErrorException {
-
-        Optional<ExpressionNode> term = parseFactor();
-        if (term.isEmpty()) return Optional.empty();
-
-        while (true) {
-            MathOpNode.MathOperations op = null;
-            if (tokenManager.matchAndRemove(Token.TokenTypes.TIMES).isPresent())
-                op = MathOpNode.MathOperations.multiply;
-            else if (tokenManager.matchAndRemove(Token.TokenTypes.DIVIDE).isPresent())
-                op = MathOpNode.MathOperations.divide;
-            else if (tokenManager.matchAndRemove(Token.TokenTypes.MODULO).isPresent())
-                op = MathOpNode.MathOperations.modulo;
-            else break;
-
-            MathOpNode mathOp = new MathOpNode();
-            mathOp.op = op;
-            mathOp.left = term.get();
             Optional<ExpressionNode> right = parseFactor();
             if (right.isEmpty())
-                throw new SyntaxErrorException("Term expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
-            mathOp.right = right.get();
-            term = Optional.of(mathOp);
+                throw new SyntaxErrorException(precedence(operator) == ADDITIVE ? "Expression expected" : "Term expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+            operands.add(right.get());
         }
-        return term;
+
+        while (!operators.isEmpty())
+            applyOperator(operands, operators);
+        return Optional.of(operands.getFirst());
+    }
+
+    //How tightly a math operator binds, or 0 for any other token
+    private static int precedence(Token.TokenTypes type) {
+        if (type == null)
+            return 0;
+        return switch (type) {
+            case PLUS, MINUS -> ADDITIVE;
+            case TIMES, DIVIDE, MODULO -> MULTIPLICATIVE;
+            default -> 0;
+        };
+    }
+
+    //Replaces the last operator and the two operands before it with one MathOpNode
+    private static void applyOperator(List<ExpressionNode> operands, List<Token.TokenTypes> operators) {
+
+        MathOpNode mathOp = new MathOpNode();
+        mathOp.op = switch (operators.removeLast()) {
+            case PLUS -> MathOpNode.MathOperations.add;
+            case MINUS -> MathOpNode.MathOperations.subtract;
+            case TIMES -> MathOpNode.MathOperations.multiply;
+            case DIVIDE -> MathOpNode.MathOperations.divide;
+            default -> MathOpNode.MathOperations.modulo;
+        };
+        mathOp.right = operands.removeLast();
+        mathOp.left = operands.removeLast();
+        operands.add(mathOp);
     }
 
     //Factor = NUMBER | VariableReference |  STRINGLITERAL | CHARACTERLITERAL | MethodCallExpression | "(" Expression ")" | "new" IDENTIFIER "(" (Expression ("," Expression )*)? ")"
     private Optional<ExpressionNode> parseFactor() throws SyntaxErrorException {
 
-        Optional<Token> number = tokenManager.matchAndRemove(Token.TokenTypes.NUMBER);
-        if (number.isPresent()) {
+        if (tokenManager.check(Token.TokenTypes.NUMBER)) {
             NumericLiteralNode numNode = new NumericLiteralNode();
-            numNode.value = Float.parseFloat(number.get().getValue());
+            numNode.value = Float.parseFloat(tokenManager.value());
+            tokenManager.advance();
             return Optional.of(numNode);
         }
 
@@ -538,45 +689,47 @@ public class Parser {
         if (varRef.isPresent())
             return Optional.of(varRef.get());
 
-        Optional<Token> string = tokenManager.matchAndRemove(Token.TokenTypes.QUOTEDSTRING);
-        if (string.isPresent()) {
+        if (tokenManager.check(Token.TokenTypes.QUOTEDSTRING)) {
             StringLiteralNode strNode = new StringLiteralNode();
-            strNode.value = string.get().getValue();
+            strNode.value = tokenManager.value();
+            tokenManager.advance();
             return Optional.of(strNode);
         }
 
-        Optional<Token> character = tokenManager.matchAndRemove(Token.TokenTypes.QUOTEDCHARACTER);
-        if (character.isPresent()) {
+        if (tokenManager.check(Token.TokenTypes.QUOTEDCHARACTER)) {
             CharLiteralNode charNode = new CharLiteralNode();
-            charNode.value = character.get().getValue().charAt(0);
+            String character = tokenManager.value();
+            tokenManager.advance();
+            charNode.value = character.charAt(0);
             return Optional.of(charNode);
         }
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.LPAREN).isPresent()) {
+        if (tokenManager.accept(Token.TokenTypes.LPAREN)) {
             Optional<ExpressionNode> expression = parseExpression();
             if (expression.isEmpty())
                 throw new SyntaxErrorException("Expression expected in factor", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
-            if (tokenManager.matchAndRemove(Token.TokenTypes.RPAREN).isEmpty())
+            if (!tokenManager.accept(Token.TokenTypes.RPAREN))
                 throw new SyntaxErrorException("RPAREN expected after factor expression", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
             return expression;
         }
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.NEW).isPresent()) {
+        if (tokenManager.accept(Token.TokenTypes.NEW)) {
 
             NewNode newNode = new NewNode();
-            Optional<Token> name = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-            if (name.isEmpty())
+            if (!tokenManager.check(Token.TokenTypes.WORD))
                 throw new SyntaxErrorException("Name expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
-            newNode.className = name.get().getValue();
+            newNode.className = tokenManager.value();
+            newNode.classNameId = tokenManager.symbol();
+            tokenManager.advance();
 
-            if (tokenManager.matchAndRemove(Token.TokenTypes.LPAREN).isEmpty())
+            if (!tokenManager.accept(Token.TokenTypes.LPAREN))
                 throw new SyntaxErrorException("LParen expected after new class identifier", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
             Optional<ExpressionNode> expression = parseExpression();
             if (expression.isPresent()) {
 
                 newNode.parameters.add(expression.get());
 
-                while (tokenManager.matchAndRemove(Token.TokenTypes.COMMA).isPresent()) {
+                while (tokenManager.accept(Token.TokenTypes.COMMA)) {
 
                     expression = parseExpression();
                     if (expression.isEmpty())
@@ -586,7 +739,7 @@ public class Parser {
 
                 }
             }
-            if (tokenManager.matchAndRemove(Token.TokenTypes.RPAREN).isEmpty())
+            if (!tokenManager.accept(Token.TokenTypes.RPAREN))
                 throw new SyntaxErrorException("RParen expected after new class identifier", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
             return Optional.of(newNode);
         }
@@ -598,15 +751,21 @@ public class Parser {
     //Interface = "interface" IDENTIFIER NEWLINE INDENT MethodHeader* DEDENT
     private Optional<InterfaceNode> parseInterface() throws SyntaxErrorException {
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.INTERFACE).isPresent()) {
+        Node preparedInterface = takePrepared(Token.TokenTypes.INTERFACE);
+        if (preparedInterface != null)
+            return Optional.of((InterfaceNode) preparedInterface);
+
+        int start = tokenManager.position();
+        if (tokenManager.accept(Token.TokenTypes.INTERFACE)) {
 
             InterfaceNode i = new InterfaceNode();
 
-            Optional<Token> name = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-            if (name.isEmpty()) {
+            if (!tokenManager.check(Token.TokenTypes.WORD)) {
                 throw new SyntaxErrorException("Interface without name", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
             }
-            i.name = name.get().getValue();
+            i.name = tokenManager.value();
+            i.nameId = tokenManager.symbol();
+            tokenManager.advance();
 
             requireNewline();
             requireIndent();
@@ -627,6 +786,8 @@ public class Parser {
                 throw new SyntaxErrorException("Methods expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
             }
 
+            if (spans != null)
+                spans.declaration(i, start, tokenManager.position());
             return Optional.of(i);
 
         } else
@@ -639,22 +800,23 @@ public class Parser {
 
         MethodHeaderNode mhn = new MethodHeaderNode();
 
-        Optional<Token> name = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-        if (name.isEmpty()) {
+        if (!tokenManager.check(Token.TokenTypes.WORD)) {
             return Optional.empty();
         }
-        mhn.name = name.get().getValue();
+        mhn.name = tokenManager.value();
+        mhn.nameId = tokenManager.symbol();
+        tokenManager.advance();
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.LPAREN).isEmpty())
+        if (!tokenManager.accept(Token.TokenTypes.LPAREN))
             throw new SyntaxErrorException("LPAREN expected after MethodHeader identifier", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
         Optional<List<VariableDeclarationNode>> parameters = parseVariableDeclarations();
         parameters.ifPresent(variableDeclarationNodes -> mhn.parameters.addAll(variableDeclarationNodes));
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.RPAREN).isEmpty())
+        if (!tokenManager.accept(Token.TokenTypes.RPAREN))
             throw new SyntaxErrorException("RPAREN expected after MethodHeader parameters", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.COLON).isPresent()) {
+        if (tokenManager.accept(Token.TokenTypes.COLON)) {
 
             Optional<List<VariableDeclarationNode>> returns = parseVariableDeclarations();
             returns.ifPresent(variableDeclarationNodes -> mhn.returns.addAll(variableDeclarationNodes));
@@ -676,7 +838,7 @@ public class Parser {
         } else
             return Optional.empty();
 
-        while (tokenManager.matchAndRemove(Token.TokenTypes.COMMA).isPresent()) {
+        while (tokenManager.accept(Token.TokenTypes.COMMA)) {
 
             var = parseVariableDeclaration();
             if (var.isPresent()) {
@@ -698,13 +860,15 @@ public class Parser {
 
                 VariableDeclarationNode var = new VariableDeclarationNode();
 
-                Optional<Token> type = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-                type.ifPresent(token -> var.type = token.getValue());
+                var.type = tokenManager.value();
+                var.typeId = tokenManager.symbol();
+                tokenManager.advance();
 
-                Optional<Token> name = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-                name.ifPresent(token -> var.name = token.getValue());
+                var.name = tokenManager.value();
+                var.nameId = tokenManager.symbol();
+                tokenManager.advance();
 
-                if (tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN).isPresent()) {
+                if (tokenManager.accept(Token.TokenTypes.ASSIGN)) {
                     Optional<ExpressionNode> initializer = parseExpression();
                     if (initializer.isPresent()) {
                         var.initializer = initializer;
@@ -723,28 +887,29 @@ public class Parser {
     //VariableReference = IDENTIFIER
     private Optional<VariableReferenceNode> parseVariableReference() throws SyntaxErrorException {
 
-        Optional<Token> name = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
-        if (name.isEmpty())
+        if (!tokenManager.check(Token.TokenTypes.WORD))
             return Optional.empty();
 
         VariableReferenceNode var = new VariableReferenceNode();
-        var.name = name.get().getValue();
+        var.name = tokenManager.value();
+        var.nameId = tokenManager.symbol();
+        tokenManager.advance();
         return Optional.of(var);
 
     }
 
     private void requireNewline() throws SyntaxErrorException {
 
-        if (tokenManager.tokens.size() == 1) { //In the case that there is no newline but automatic end of file dedent
-            if (tokenManager.matchAndRemove(Token.TokenTypes.DEDENT).isPresent())
+        if (tokenManager.isLastToken()) { //In the case that there is no newline but automatic end of file dedent
+            if (tokenManager.accept(Token.TokenTypes.DEDENT))
                 return;
         }
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.NEWLINE).isEmpty()) {
+        if (!tokenManager.accept(Token.TokenTypes.NEWLINE)) {
             throw new SyntaxErrorException("Newline expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
         } else {
             while (!tokenManager.done())
-                if (tokenManager.matchAndRemove(Token.TokenTypes.NEWLINE).isEmpty()) {
+                if (!tokenManager.accept(Token.TokenTypes.NEWLINE)) {
                     return;
                 }
         }
@@ -752,7 +917,7 @@ public class Parser {
 
     private void consumeWhitespace() {
 
-        while (tokenManager.tokens.size() != 1 && tokenManager.matchAndRemove(Token.TokenTypes.NEWLINE).isPresent()) {
+        while (!tokenManager.isLastToken() && tokenManager.accept(Token.TokenTypes.NEWLINE)) {
             continue;
         }
 
@@ -760,19 +925,39 @@ public class Parser {
 
     private void requireIndent() throws SyntaxErrorException {
 
-        if (tokenManager.matchAndRemove(Token.TokenTypes.INDENT).isEmpty())
+        if (!tokenManager.accept(Token.TokenTypes.INDENT))
             throw new SyntaxErrorException("Indent expected", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
 
     }
 
     private boolean checkDedent() throws SyntaxErrorException { //Prevents the case where a loop would occur infinitely if a dedent was missing
 
-        if (tokenManager.tokens.size() == 1 && tokenManager.matchAndRemove(Token.TokenTypes.DEDENT).isEmpty()) {
+        if (tokenManager.isLastToken() && !tokenManager.accept(Token.TokenTypes.DEDENT)) {
             throw new SyntaxErrorException("Dedent missing before EOF", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
         }
 
-        return tokenManager.matchAndRemove(Token.TokenTypes.DEDENT).isEmpty();
+        return !tokenManager.accept(Token.TokenTypes.DEDENT);
 
     }
 
+    //Takes method and constructor bodies from the Parser as they are finished, see setBodyCompiler
+    public interface BodyCompiler {
+        void compile(MethodDeclarationNode method);
+
+        void compile(ConstructorNode constructor);
+    }
+
+    //Carries a syntax error out of a method body that was parsed late, when the Interpreter or anything else got to it
+    public static class LazyBodyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public LazyBodyException(String method, SyntaxErrorException cause) {
+            super("In the body of " + method + ": " + cause.getMessage(), cause);
+        }
+
+        @Override
+        public SyntaxErrorException getCause() {
+            return (SyntaxErrorException) super.getCause();
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package Tran;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+//A TextManager that decodes its source a chunk at a time. Only the text from the last mark() onward is kept on the heap,
+//so memory is bounded by the longest single token or comment rather than by the file size.
+public class StreamingTextManager extends TextManager {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private char[] window = new char[CHUNK_SIZE];
+    private int windowStart; //Position of window[0] in the source
+    private int limit; //Number of valid characters in the window
+    private int markPosition;
+    private boolean endOfInput;
+
+    public StreamingTextManager(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean isAtEnd() {
+        return !fill(0);
+    }
+
+    @Override
+    public char peekCharacter() {
+        return peekCharacter(0);
+    }
+
+    @Override
+    public char peekCharacter(int dist) {
+        if (!fill(dist))
+            throw new IndexOutOfBoundsException("Index " + (position + dist) + " is past the end of the input");
+        return window[position + dist - windowStart];
+    }
+
+    @Override
+    public char getCharacter() {
+        char c = peekCharacter(0);
+        position++;
+        return c;
+    }
+
+    @Override
+    public int skipUntil(char stop) {
+        int start = position;
+        while (fill(0) && window[position - windowStart] != stop)
+            position++;
+        return position - start;
+    }
+
+    @Override
+    public int skipWhile(char c) {
+        int start = position;
+        while (fill(0) && window[position - windowStart] == c)
+            position++;
+        return position - start;
+    }
+
+    @Override
+    public void mark() {
+        markPosition = position;
+    }
+
+    @Override
+    public String slice(int start, int end) {
+        if (start < windowStart)
+            throw new IllegalStateException("Text at " + start + " has already been released");
+        return new String(window, start - windowStart, end - start);
+    }
+
+    @Override
+    public boolean matches(int start, String word) {
+        if (start < windowStart || start + word.length() > windowStart + limit)
+            return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (window[start - windowStart + i] != word.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean retainsText() {
+        return false;
+    }
+
+    //Closes the reader. Done at the end of the input, and by the Lexer if it stops early.
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Makes sure the character dist past the position is in the window. Returns false if the input ends first.
+    private boolean fill(int dist) {
+        while (position + dist >= windowStart + limit) {
+            if (endOfInput)
+                return false;
+            readChunk();
+        }
+        return true;
+    }
+
+    private void readChunk() {
+        int discard = markPosition - windowStart;
+        if (discard > 0) { //Drop everything before the mark
+            System.arraycopy(window, discard, window, 0, limit - discard);
+            windowStart = markPosition;
+            limit -= discard;
+        }
+        if (limit == window.length) { //A single token is longer than the window
+            char[] bigger = new char[window.length * 2];
+            System.arraycopy(window, 0, bigger, 0, limit);
+            window = bigger;
+        }
+        try {
+            int read = reader.read(window, limit, window.length - limit);
+            if (read == -1) {
+                endOfInput = true;
+                close();
+            } else
+                limit += read;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package Tran;
+
+import AST.*;
+
+import java.util.*;
+
+//An optional pass over a parsed tree that makes structurally identical expressions the same object. Generated programs
+//repeat the same literals and small expressions thousands of times, and after this pass each of them is held once, and
+//anything that keeps results by node, like folded constants, finds them again at every copy.
+//Nothing changes an expression once the parser has built it, which is what makes sharing them safe. Trees made of
+//literals are shared across the whole program. Trees that read a variable are only shared within one method, constructor
+//or class's members, so that anything later tied to where a name resolves stays right. Method calls and new are never
+//shared, since each of them is its own call site, but their parameters are. Methods whose bodies haven't been parsed
+//yet are left as they are.
+public class SubtreeSharer {
+
+    private record Key(Class<?> type, Object value, ExpressionNode left, ExpressionNode right) {}
+
+    private final Map<Key, ExpressionNode> constants = new HashMap<>();
+    private final Map<Key, ExpressionNode> locals = new HashMap<>();
+    private final Set<ExpressionNode> readsVariables = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int shared; //How many nodes were replaced by one seen before
+
+    private SubtreeSharer() {
+    }
+
+    //Shares the expressions in the tree in place and returns how many nodes were replaced by an identical one
+    public static int share(TranNode top) {
+        var sharer = new SubtreeSharer();
+        for (ClassNode c : top.Classes) {
+            sharer.newScope();
+            for (MemberNode member : c.members)
+                sharer.declaration(member.declaration);
+            for (ConstructorNode constructor : c.constructors) {
+                sharer.newScope();
+                sharer.declarations(constructor.parameters);
+                sharer.declarations(constructor.locals);
+                sharer.statements(constructor.statements);
+            }
+            for (MethodDeclarationNode method : c.methods) {
+                if (method.unparsedBody != null || method instanceof BuiltInMethodDeclarationNode)
+                    continue;
+                sharer.newScope();
+                sharer.declarations(method.locals);
+                sharer.statements(method.statements);
+            }
+        }
+        return sharer.shared;
+    }
+
+    private void newScope() {
+        locals.clear();
+        readsVariables.clear();
+    }
+
+    private void declarations(List<VariableDeclarationNode> declarations) {
+        if (declarations != null)
+            for (VariableDeclarationNode declaration : declarations)
+                declaration(declaration);
+    }
+
+    private void declaration(VariableDeclarationNode declaration) {
+        if (declaration != null && declaration.initializer != null && declaration.initializer.isPresent())
+            declaration.initializer = Optional.of(expression(declaration.initializer.get()));
+    }
+
+    private void statements(List<StatementNode> statements) {
+        if (statements == null)
+            return;
+        for (StatementNode statement : statements) {
+            switch (statement) {
+                case AssignmentNode a -> {
+                    a.target = (VariableReferenceNode) expression(a.target);
+                    a.expression = expression(a.expression);
+                }
+                case IfNode i -> {
+                    i.condition = expression(i.condition);
+                    statements(i.statements);
+                    if (i.elseStatement != null && i.elseStatement.isPresent())
+                        statements(i.elseStatement.get().statements);
+                }
+                case LoopNode l -> {
+                    if (l.assignment != null && l.assignment.isPresent())
+                        l.assignment = Optional.of((VariableReferenceNode) expression(l.assignment.get()));
+                    l.expression = expression(l.expression);
+                    statements(l.statements);
+                }
+                case MethodCallStatementNode m -> {
+                    parameters(m.parameters);
+                    if (m.returnValues != null)
+                        m.returnValues.replaceAll(r -> (VariableReferenceNode) expression(r));
+                }
+                case null, default -> {
+                }
+            }
+        }
+    }
+
+    private void parameters(List<ExpressionNode> parameters) {
+        if (parameters != null)
+            parameters.replaceAll(this::expression);
+    }
+
+    //Long chains of operators lean left, so the left side is followed in a loop rather than by recursion
+    private ExpressionNode expression(ExpressionNode e) {
+        List<ExpressionNode> spine = new ArrayList<>();
+        while (e instanceof MathOpNode || e instanceof CompareNode || e instanceof BooleanOpNode) {
+            spine.add(e);
+            e = switch (e) {
+                case MathOpNode m -> m.left;
+                case CompareNode c -> c.left;
+                default -> ((BooleanOpNode) e).left;
+            };
+        }
+        ExpressionNode result = leaf(e);
+        //Each operator still belongs to this tree alone until it is looked up, so its children can be swapped in place
+        for (int i = spine.size() - 1; i >= 0; i--) {
+            result = switch (spine.get(i)) {
+                case MathOpNode m -> {
+                    m.left = result;
+                    m.right = expression(m.right);
+                    yield intern(m, new Key(MathOpNode.class, m.op, m.left, m.right));
+                }
+                case CompareNode c -> {
+                    c.left = result;
+                    c.right = expression(c.right);
+                    yield intern(c, new Key(CompareNode.class, c.op, c.left, c.right));
+                }
+                case BooleanOpNode b -> {
+                    b.left = result;
+                    b.right = expression(b.right);
+                    yield intern(b, new Key(BooleanOpNode.class, b.op, b.left, b.right));
+                }
+                default -> throw new IllegalStateException();
+            };
+        }
+        return result;
+    }
+
+    private ExpressionNode leaf(ExpressionNode e) {
+        return switch (e) {
+            case null -> null;
+            case NumericLiteralNode n -> intern(n, new Key(NumericLiteralNode.class, Float.floatToRawIntBits(n.value), null, null));
+            case StringLiteralNode s -> intern(s, new Key(StringLiteralNode.class, s.value, null, null));
+            case CharLiteralNode c -> intern(c, new Key(CharLiteralNode.class, c.value, null, null));
+            case BooleanLiteralNode b -> intern(b, new Key(BooleanLiteralNode.class, b.value, null, null));
+            case VariableReferenceNode v -> {
+                ExpressionNode found = locals.get(new Key(VariableReferenceNode.class, v.name, null, null));
+                if (found != null) {
+                    shared++;
+                    yield found;
+                }
+                locals.put(new Key(VariableReferenceNode.class, v.name, null, null), v);
+                readsVariables.add(v);
+                yield v;
+            }
+            case NotOpNode n -> {
+                n.left = expression(n.left);
+                yield intern(n, new Key(NotOpNode.class, null, n.left, null));
+            }
+            case MethodCallExpressionNode m -> {
+                parameters(m.parameters);
+                yield m;
+            }
+            case NewNode n -> {
+                parameters(n.parameters);
+                yield n;
+            }
+            default -> e;
+        };
+    }
+
+    //The node seen before with the same key, or this one, which is then the one later copies get
+    private ExpressionNode intern(ExpressionNode node, Key key) {
+        boolean local = readsVariables.contains(key.left()) || readsVariables.contains(key.right());
+        Map<Key, ExpressionNode> table = local ? locals : constants;
+        ExpressionNode found = table.putIfAbsent(key, node);
+        if (found != null) {
+            shared++;
+            return found;
+        }
+        if (local)
+            readsVariables.add(node);
+        return node;
+    }
+}
@@ -0,0 +1,81 @@
+package Tran;
+
+import java.util.Arrays;
+
+//Gives every identifier a small, dense id that stays the same for the life of the JVM. The lexer interns each WORD as
+//it reads it, so the parser and interpreter can compare names as ints instead of Strings. Names are never removed, so
+//the table grows with the number of distinct names the JVM has lexed (see CompileSession).
+public final class SymbolTable {
+    private static volatile String[] names = new String[256];
+    private static volatile int[] slots = new int[512]; //Open addressing table of id + 1, zero is an empty slot
+    private static int count;
+
+    private SymbolTable() {
+    }
+
+    public static int intern(String name) {
+        int id = find(name.hashCode(), name.length(), null, 0, name);
+        return id >= 0 ? id : add(name.hashCode(), name.length(), null, 0, name);
+    }
+
+    //Interns the given range of the source without copying it unless the name is new. The hash is the String.hashCode()
+    //of the text in the range, which the lexer works out as it reads it.
+    public static int intern(TextManager text, int start, int length, int hash) {
+        int id = find(hash, length, text, start, null);
+        return id >= 0 ? id : add(hash, length, text, start, null);
+    }
+
+    public static String name(int id) {
+        return names[id];
+    }
+
+    public static synchronized int size() {
+        return count;
+    }
+
+    //Almost every word has been seen before, so lookups don't take the lock. A reader can see a slot before the name
+    //it points to, so anything that looks half written is reported as missing and add() looks again under the lock.
+    private static int find(int hash, int length, TextManager text, int start, String string) {
+        int[] table = slots;
+        String[] known = names;
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int id = table[i] - 1;
+            if (id < 0 || id >= known.length || known[id] == null)
+                return -1;
+            String name = known[id];
+            if (name.hashCode() == hash && (text == null ? name.equals(string) : text.matches(start, start + length, name)))
+                return id;
+        }
+    }
+
+    private static synchronized int add(int hash, int length, TextManager text, int start, String string) {
+        int id = find(hash, length, text, start, string);
+        if (id >= 0)
+            return id;
+        if (count == names.length)
+            names = Arrays.copyOf(names, count * 2);
+        names[count] = text == null ? string : text.slice(start, start + length);
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        while (slots[i] != 0)
+            i = (i + 1) & mask;
+        slots[i] = count + 1;
+        count++;
+        if (count * 2 > slots.length)
+            rehash();
+        return count - 1;
+    }
+
+    private static void rehash() {
+        int[] table = new int[slots.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < count; id++) {
+            int i = names[id].hashCode() & mask;
+            while (table[i] != 0)
+                i = (i + 1) & mask;
+            table[i] = id + 1;
+        }
+        slots = table;
+    }
+}
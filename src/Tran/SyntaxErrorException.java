@@ -9,6 +9,14 @@ public class SyntaxErrorException extends Exception{
         this.characterPosition = characterPosition;
     }
 
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public int getCharacterPosition() {
+        return characterPosition;
+    }
+
     @Override
     public String toString() {
         return "Error at line " + lineNumber + " at character " + characterPosition + " at " + super.toString();
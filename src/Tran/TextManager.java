@@ -2,24 +2,91 @@ package Tran;
 public class TextManager {
     int position;
     final String text;
+    final int end; //The text stops here, which is before the end of the String for a manager over part of it
 
     public TextManager(String input) {
+        this(input, 0, input.length());
+    }
+
+    //Just the characters from start up to end of input. Positions are still offsets into all of input.
+    TextManager(String input, int start, int end) {
         this.text = input;
+        this.position = start;
+        this.end = end;
+    }
+
+    //For sources that do not keep the whole program in one String
+    protected TextManager() {
+        this.text = null;
+        this.end = 0;
     }
 
     public boolean isAtEnd() {
-        return position == text.length();
+        return position == end;
     }
 
     public char peekCharacter() {
-           return text.charAt(position);
+           return charAt(position);
     }
 
     public char peekCharacter(int dist) {
-            return text.charAt(position + dist);
+            return charAt(position + dist);
     }
 
     public char getCharacter() {
-            return text.charAt(position++);
+            return charAt(position++);
+    }
+
+    //The lexer counts on reading past the end failing, even when the String goes on
+    private char charAt(int index) {
+        if (index >= end)
+            throw new StringIndexOutOfBoundsException("Index " + index + " out of bounds for length " + end);
+        return text.charAt(index);
+    }
+
+    //Moves the position up to the next stop character, or to the end if there isn't one, and returns how many
+    //characters it passed. String.indexOf is vectorized by the JIT, so the run is scanned many characters at a time.
+    public int skipUntil(char stop) {
+        int found = text.indexOf(stop, position, end);
+        int next = found < 0 ? end : found;
+        int skipped = next - position;
+        position = next;
+        return skipped;
+    }
+
+    //Moves the position past a run of the given character and returns how long the run was
+    public int skipWhile(char c) {
+        int start = position;
+        while (position < end && text.charAt(position) == c)
+            position++;
+        return position - start;
+    }
+
+    //Tells the source that nothing before the current position will be sliced or matched again
+    public void mark() {
+    }
+
+    //Copies the characters between start (inclusive) and end (exclusive) out of the source
+    public String slice(int start, int end) {
+        return text.substring(start, end);
+    }
+
+    //Checks the source for the given word at start without copying anything out of it
+    public boolean matches(int start, String word) {
+        return text.regionMatches(start, word, 0, word.length());
+    }
+
+    //Checks that the source from start up to end is exactly the given word
+    public boolean matches(int start, int end, String word) {
+        return end - start == word.length() && matches(start, word);
+    }
+
+    //Whether slices can still be taken after the position has moved on. Tokens only hold on to sources that do.
+    public boolean retainsText() {
+        return true;
+    }
+
+    //Lets go of whatever the source is read from. Text already in memory has nothing to let go of.
+    public void close() {
     }
 }
@@ -1,5 +1,4 @@
 package Tran;
-import java.util.Optional;
 
 public class Token {
     public enum TokenTypes {
@@ -13,7 +12,12 @@ public class Token {
         NEW, PRIVATE, SHARED, CONSTRUCT
     }
 
-    private final Optional<String> value;
+    //Tokens made by the lexer only remember where their text sits in the source. The String is cut out the first time getValue() is called.
+    private final TextManager source;
+    private final int valueStart;
+    private final int valueLength;
+    private String value;
+    private int symbol = -1; //SymbolTable id of a WORD, looked up on first use for tokens made outside the lexer
 
     private final TokenTypes type;
 
@@ -30,28 +34,59 @@ public class Token {
     }
 
     public Token(TokenTypes type, int lineNumber, int columnNumber ){
-        this(type, lineNumber,columnNumber, Optional.empty() );
+        this(type, lineNumber, columnNumber, "");
     }
 
     public Token(TokenTypes type, int lineNumber, int columnNumber, String value ){
-        this(type, lineNumber,columnNumber, Optional.of(value) );
+        this(type, lineNumber, columnNumber, null, 0, value.length());
+        this.value = value;
     }
 
-    private Token(TokenTypes type, int lineNumber, int columnNumber, Optional<String> value ) {
+    Token(TokenTypes type, int lineNumber, int columnNumber, TextManager source, int valueStart, int valueLength) {
         this.lineNumber = lineNumber;
         this.columnNumber = columnNumber;
         this.type = type;
-        this.value = value;
+        this.source = source;
+        this.valueStart = valueStart;
+        this.valueLength = valueLength;
+    }
+
+    Token(TokenTypes type, int lineNumber, int columnNumber, TextManager source, int valueStart, int valueLength, int symbol) {
+        this(type, lineNumber, columnNumber, source, valueStart, valueLength);
+        this.symbol = symbol;
     }
 
     public TokenTypes getType() { return type; }
 
     public String getValue() {
-           return value.orElse("");
+        if (value == null)
+            value = source.slice(valueStart, valueStart + valueLength);
+        return value;
+    }
+
+    //The SymbolTable id of a WORD's text, or -1 for any other kind of token
+    public int getSymbol() {
+        if (symbol < 0 && type == TokenTypes.WORD)
+            symbol = SymbolTable.intern(getValue());
+        return symbol;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Token other))
+            return false;
+        return type == other.type && lineNumber == other.lineNumber && columnNumber == other.columnNumber && getValue().equals(other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return ((type.hashCode() * 31 + lineNumber) * 31 + columnNumber) * 31 + getValue().hashCode();
     }
 
     @Override
     public String toString() {
-       return type + " " + (value.orElse("")) + "@" + lineNumber + "," + columnNumber;
+       return type + " " + getValue() + "@" + lineNumber + "," + columnNumber;
     }
 }
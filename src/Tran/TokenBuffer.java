@@ -0,0 +1,255 @@
+package Tran;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+//A token stream packed into parallel arrays, one row per token. Values are offsets into the source text, so a token
+//costs a few bytes instead of a Token object and a list node. As a List<Token> it builds Token objects on request.
+public class TokenBuffer extends AbstractList<Token> {
+    private static final Token.TokenTypes[] types = Token.TokenTypes.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private TextManager source;
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] columns = new int[INITIAL_CAPACITY];
+    //A value start of zero or more is an offset into the source. Values that are not in the source are kept in
+    //strings, and their start is -(index + 1).
+    private int[] valueStarts = new int[INITIAL_CAPACITY];
+    private int[] valueLengths = new int[INITIAL_CAPACITY];
+    private int[] symbols = new int[INITIAL_CAPACITY]; //SymbolTable id for WORD rows, -1 for the rest
+    private String[] strings = new String[0];
+    private int stringCount;
+    private int unusedStrings; //Strings no row refers to any more since splice() replaced their rows
+    private int size;
+
+    public TokenBuffer() {
+        this(null);
+    }
+
+    public TokenBuffer(TextManager source) {
+        this.source = source;
+    }
+
+    //Packs a list of tokens. A list that is already a TokenBuffer is used as is.
+    public static TokenBuffer of(List<Token> tokens) {
+        if (tokens instanceof TokenBuffer buffer)
+            return buffer;
+        TokenBuffer buffer = new TokenBuffer();
+        for (Token token : tokens)
+            buffer.add(token);
+        return buffer;
+    }
+
+    public void add(Token.TokenTypes type, int line, int column) {
+        addRow(type, line, column, 0, 0, -1);
+    }
+
+    public void add(Token.TokenTypes type, int line, int column, String value) {
+        if (value.isEmpty()) {
+            add(type, line, column);
+            return;
+        }
+        addRow(type, line, column, addString(value), value.length(), type == Token.TokenTypes.WORD ? SymbolTable.intern(value) : -1);
+    }
+
+    //Stores a value that is not in the source and returns the value start that refers to it
+    private int addString(String value) {
+        if (stringCount == strings.length)
+            strings = Arrays.copyOf(strings, Math.max(8, stringCount * 2));
+        strings[stringCount++] = value;
+        return -stringCount;
+    }
+
+    //Adds a token whose value is the given range of the source
+    void addSlice(Token.TokenTypes type, int line, int column, int start, int length, int symbol) {
+        addRow(type, line, column, start, length, symbol);
+    }
+
+    @Override
+    public boolean add(Token token) {
+        add(token.getType(), token.getLineNumber(), token.getColumnNumber(), token.getValue());
+        return true;
+    }
+
+    //Copies one row of another buffer onto the end of this one
+    void append(TokenBuffer other, int index) {
+        int start = other.valueStarts[index];
+        if (start < 0)
+            add(other.type(index), other.lines[index], other.columns[index], other.strings[-start - 1]);
+        else if (other.valueLengths[index] == 0 || other.source == source)
+            addRow(other.type(index), other.lines[index], other.columns[index], start, other.valueLengths[index], other.symbols[index]);
+        else
+            add(other.type(index), other.lines[index], other.columns[index], other.value(index));
+    }
+
+    //Replaces rows from to (exclusive) with the rows of replacement, and moves the value offsets and line numbers of
+    //the rows after them by offsetShift and lineShift. This patches an edit into a buffer lexed from the text before
+    //the edit; source is the text after it. The rows after to are all moved, so this is in proportion to the buffer,
+    //not the edit.
+    void splice(int from, int to, TokenBuffer replacement, int offsetShift, int lineShift, TextManager source) {
+        for (int i = from; i < to; i++) {
+            if (valueStarts[i] < 0)
+                unusedStrings++;
+        }
+        int count = replacement.size;
+        int tail = size - to;
+        int newSize = from + count + tail;
+        if (newSize > kinds.length)
+            grow(newSize);
+        System.arraycopy(kinds, to, kinds, from + count, tail);
+        System.arraycopy(lines, to, lines, from + count, tail);
+        System.arraycopy(columns, to, columns, from + count, tail);
+        System.arraycopy(valueStarts, to, valueStarts, from + count, tail);
+        System.arraycopy(valueLengths, to, valueLengths, from + count, tail);
+        System.arraycopy(symbols, to, symbols, from + count, tail);
+        for (int i = from + count; i < newSize; i++) {
+            lines[i] += lineShift;
+            if (valueStarts[i] >= 0 && valueLengths[i] > 0)
+                valueStarts[i] += offsetShift;
+        }
+
+        System.arraycopy(replacement.kinds, 0, kinds, from, count);
+        System.arraycopy(replacement.lines, 0, lines, from, count);
+        System.arraycopy(replacement.columns, 0, columns, from, count);
+        System.arraycopy(replacement.valueLengths, 0, valueLengths, from, count);
+        System.arraycopy(replacement.symbols, 0, symbols, from, count);
+        for (int i = 0; i < count; i++) {
+            int start = replacement.valueStarts[i];
+            valueStarts[from + i] = start < 0 ? addString(replacement.strings[-start - 1]) : start;
+        }
+        size = newSize;
+        this.source = source;
+        //Once most of the strings are unused they are dropped, so a buffer that is edited for a long time doesn't
+        //keep every string it ever had
+        if (unusedStrings > stringCount / 2)
+            compactStrings();
+    }
+
+    //Adds count rows to be filled in by copyInto()
+    void extend(int count) {
+        if (size + count > kinds.length)
+            grow(size + count);
+        size += count;
+    }
+
+    //Copies every row into target starting at row at, moving line numbers by lineShift. The rows must all be slices of
+    //the target's source. Separate buffers can be copied into one at the same time this way.
+    void copyInto(TokenBuffer target, int at, int lineShift) {
+        if (stringCount > 0)
+            throw new IllegalStateException("Only rows that are slices of the source can be copied");
+        System.arraycopy(kinds, 0, target.kinds, at, size);
+        System.arraycopy(columns, 0, target.columns, at, size);
+        System.arraycopy(valueStarts, 0, target.valueStarts, at, size);
+        System.arraycopy(valueLengths, 0, target.valueLengths, at, size);
+        System.arraycopy(symbols, 0, target.symbols, at, size);
+        for (int i = 0; i < size; i++)
+            target.lines[at + i] = lines[i] + lineShift;
+    }
+
+    private void addRow(Token.TokenTypes type, int line, int column, int valueStart, int valueLength, int symbol) {
+        if (size == kinds.length)
+            grow(size + 1);
+        kinds[size] = (byte) type.ordinal();
+        lines[size] = line;
+        columns[size] = column;
+        valueStarts[size] = valueStart;
+        valueLengths[size] = valueLength;
+        symbols[size] = symbol;
+        size++;
+    }
+
+    private void grow(int minimum) {
+        int capacity = Math.max(kinds.length * 2, minimum);
+        kinds = Arrays.copyOf(kinds, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        valueStarts = Arrays.copyOf(valueStarts, capacity);
+        valueLengths = Arrays.copyOf(valueLengths, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+    }
+
+    public Token.TokenTypes type(int i) {
+        return types[kinds[i]];
+    }
+
+    public int line(int i) {
+        return lines[i];
+    }
+
+    public int column(int i) {
+        return columns[i];
+    }
+
+    public int symbol(int i) {
+        return symbols[i];
+    }
+
+    public String value(int i) {
+        if (valueStarts[i] < 0)
+            return strings[-valueStarts[i] - 1];
+        if (valueLengths[i] == 0)
+            return "";
+        return source.slice(valueStarts[i], valueStarts[i] + valueLengths[i]);
+    }
+
+    @Override
+    public Token get(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        if (valueStarts[i] < 0)
+            return new Token(type(i), lines[i], columns[i], strings[-valueStarts[i] - 1]);
+        if (valueLengths[i] == 0)
+            return new Token(type(i), lines[i], columns[i]);
+        return new Token(type(i), lines[i], columns[i], source, valueStarts[i], valueLengths[i], symbols[i]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(strings, 0, stringCount, null);
+        stringCount = 0;
+        unusedStrings = 0;
+        size = 0;
+    }
+
+    //Empties the buffer for tokens from another source. The arrays are kept, so refilling it allocates nothing until it
+    //outgrows them.
+    void reset(TextManager source) {
+        clear();
+        this.source = source;
+    }
+
+    //Drops the first count rows. Used by readers that only need a window of the stream.
+    void discard(int count) {
+        int remaining = size - count;
+        System.arraycopy(kinds, count, kinds, 0, remaining);
+        System.arraycopy(lines, count, lines, 0, remaining);
+        System.arraycopy(columns, count, columns, 0, remaining);
+        System.arraycopy(valueStarts, count, valueStarts, 0, remaining);
+        System.arraycopy(valueLengths, count, valueLengths, 0, remaining);
+        System.arraycopy(symbols, count, symbols, 0, remaining);
+        size = remaining;
+        compactStrings();
+    }
+
+    //Keeps only the strings the rows still use
+    private void compactStrings() {
+        String[] kept = new String[Math.max(8, size)];
+        int keptCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (valueStarts[i] < 0) {
+                kept[keptCount++] = strings[-valueStarts[i] - 1];
+                valueStarts[i] = -keptCount;
+            }
+        }
+        strings = kept;
+        stringCount = keptCount;
+        unusedStrings = 0;
+    }
+}
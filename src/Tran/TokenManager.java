@@ -1,55 +1,198 @@
 package Tran;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 public class TokenManager {
 
-    LinkedList<Token> tokens;
+    //Once this many consumed rows pile up in front of the cursor they are dropped from a streamed buffer
+    private static final int DISCARD_THRESHOLD = 1024;
+
+    private final TokenBuffer tokens;
+    private int position; //Index of the next unconsumed token
+    private final TokenSource source; //Null when the buffer already holds the whole stream
+    private boolean sourceDone;
+    private boolean keepAll; //Whether tokens pulled from the source stay in the buffer once they are consumed
 
     public TokenManager(List<Token> tokens) {
-        this.tokens = new LinkedList<>(tokens);
+        this.tokens = TokenBuffer.of(tokens);
+        this.source = null;
     }
 
-    public boolean done() {
-	    return tokens.isEmpty();
+    public TokenManager(TokenSource source) {
+        this.tokens = source.newBuffer();
+        this.source = source;
     }
 
-    public Optional<Token> matchAndRemove(Token.TokenTypes t) {
-
-        if (tokens.peek() != null) {
-            if (t.equals(tokens.peek().getType())) {
-                return Optional.ofNullable(tokens.poll());
+    //Pulls tokens from the source until count unconsumed tokens are buffered or the source runs out
+    private void fill(int count) {
+        if (source == null)
+            return;
+        if (!keepAll && position >= DISCARD_THRESHOLD) {
+            tokens.discard(position);
+            position = 0;
+        }
+        while (tokens.size() - position < count && !sourceDone) {
+            try {
+                sourceDone = !source.nextInto(tokens);
+            } catch (SyntaxErrorException e) {
+                throw new SourceException(e);
             }
         }
+    }
+
+    //Keeps every token pulled from the source, so the buffer ends up holding the whole stream
+    void keepAll(boolean keep) {
+        keepAll = keep;
+    }
+
+    //The tokens pulled so far, or the whole stream
+    TokenBuffer tokens() {
+        return tokens;
+    }
+
+    //Where the next token is in the buffer. Only meaningful when the buffer holds the whole stream.
+    int position() {
+        return position;
+    }
+
+    void seek(int position) {
+        this.position = position;
+    }
+
+    //Goes back to the start of the buffer, which has been refilled with another stream
+    void reset() {
+        position = 0;
+        sourceDone = false;
+    }
+
+    private int remaining() {
+        return tokens.size() - position;
+    }
+
+    public boolean done() {
+        fill(1);
+	    return remaining() == 0;
+    }
+
+    //True when exactly one token is left
+    public boolean isLastToken() {
+        fill(2);
+        return remaining() == 1;
+    }
+
+    public Optional<Token> matchAndRemove(Token.TokenTypes t) {
+        fill(1);
+        if (remaining() > 0 && tokens.type(position) == t)
+            return Optional.of(tokens.get(position++));
         return Optional.empty();
     }
 
+    //The probes below look at the tokens where they sit in the buffer. Unlike matchAndRemove() and peek() they make no
+    //Token or Optional, which matters as the parser tries one token type after another.
+
+    //Whether the next token is of the given type
+    public boolean check(Token.TokenTypes t) {
+        fill(1);
+        return remaining() > 0 && tokens.type(position) == t;
+    }
+
+    //Whether the token i places ahead of the next one is of the given type. False past the end.
+    public boolean check(int i, Token.TokenTypes t) {
+        fill(i + 1);
+        return remaining() > i && tokens.type(position + i) == t;
+    }
+
+    //The type of the next token, or null if there are none left
+    public Token.TokenTypes peekType() {
+        fill(1);
+        return remaining() > 0 ? tokens.type(position) : null;
+    }
+
+    //The type of the token i places ahead of the next one, or null past the end
+    public Token.TokenTypes peekType(int i) {
+        fill(i + 1);
+        return remaining() > i ? tokens.type(position + i) : null;
+    }
+
+    //Consumes the next token
+    public void advance() {
+        fill(1);
+        requireToken();
+        position++;
+    }
+
+    //Consumes the next token if it is of the given type. The same as matchAndRemove(t).isPresent().
+    public boolean accept(Token.TokenTypes t) {
+        if (!check(t))
+            return false;
+        position++;
+        return true;
+    }
+
+    //The text of the next token
+    public String value() {
+        fill(1);
+        requireToken();
+        return tokens.value(position);
+    }
+
+    //The SymbolTable id of the next token if it is a WORD, -1 otherwise
+    public int symbol() {
+        fill(1);
+        requireToken();
+        int symbol = tokens.symbol(position);
+        if (symbol < 0 && tokens.type(position) == Token.TokenTypes.WORD)
+            return SymbolTable.intern(tokens.value(position));
+        return symbol;
+    }
+
     public Optional<Token> peek(int i) {
-	    return Optional.ofNullable(tokens.get(i));
+        fill(i + 1);
+	    return Optional.ofNullable(tokens.get(position + i));
     }
 
     public boolean nextTwoTokensMatch(Token.TokenTypes first, Token.TokenTypes second) {
-        try {
-            return tokens.getFirst().getType() == first && tokens.get(1).getType() == second;
-        } catch (IndexOutOfBoundsException e) {
-            return false;
-        }
+        fill(2);
+        requireToken();
+        return remaining() > 1 && tokens.type(position) == first && tokens.type(position + 1) == second;
     }
 
     public boolean nextIsEither(Token.TokenTypes first, Token.TokenTypes second) {
-        try {
-            return tokens.getFirst().getType() == first || tokens.getFirst().getType() == second;
-        } catch (IndexOutOfBoundsException e) {
-            return false;
-        }
+        fill(1);
+        requireToken();
+        return tokens.type(position) == first || tokens.type(position) == second;
     }
 
     public int getCurrentLine() {
-            return tokens.getFirst().getLineNumber();
+            fill(1);
+            requireToken();
+            return tokens.line(position);
     }
 
     public int getCurrentColumnNumber() {
-            return tokens.getFirst().getColumnNumber();
+            fill(1);
+            requireToken();
+            return tokens.column(position);
+    }
+
+    //The parser relies on running off the end of the tokens failing the same way it always has
+    private void requireToken() {
+        if (remaining() == 0)
+            throw new NoSuchElementException();
+    }
+
+    //Carries a lexing error out of a lazily pulled source. The Parser turns it back into the SyntaxErrorException.
+    public static class SourceException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SourceException(SyntaxErrorException cause) {
+            super(cause);
+        }
+
+        @Override
+        public SyntaxErrorException getCause() {
+            return (SyntaxErrorException) super.getCause();
+        }
     }
 }
@@ -0,0 +1,21 @@
+package Tran;
+
+//Hands out tokens one at a time so the parser can start before the whole input is lexed
+public interface TokenSource {
+    //Returns the next token, or null once the input is used up
+    Token next() throws SyntaxErrorException;
+
+    //Moves at least one more token onto the end of the buffer. Returns false once the input is used up.
+    default boolean nextInto(TokenBuffer buffer) throws SyntaxErrorException {
+        Token next = next();
+        if (next == null)
+            return false;
+        buffer.add(next);
+        return true;
+    }
+
+    //The buffer a reader of this source should collect its tokens in
+    default TokenBuffer newBuffer() {
+        return new TokenBuffer();
+    }
+}
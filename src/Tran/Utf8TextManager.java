@@ -0,0 +1,248 @@
+package Tran;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Reads UTF-8 bytes directly, such as a file read into an array or mapped into memory, instead of decoding the whole
+//program into a String first. Everything outside of literals is ASCII, so almost every character is one byte that needs
+//no decoding. Only the slices that become token values are turned into Strings. Positions are byte offsets.
+//Characters come out the same as they would from a String: a character outside the BMP is two surrogates that take
+//two bytes each, and a byte that isn't valid UTF-8 reads as U+FFFD.
+public class Utf8TextManager extends TextManager {
+    //Reads eight bytes of an array as one long, lowest address in the lowest byte
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final ByteBuffer bytes;
+    private final byte[] array; //The bytes themselves when they are on the heap, as reading them straight is faster
+    private final int offset; //Where the text starts in array
+    private final int limit;
+
+    public Utf8TextManager(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    public Utf8TextManager(ByteBuffer bytes) {
+        this.bytes = bytes.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.limit = this.bytes.limit();
+        this.array = this.bytes.hasArray() ? this.bytes.array() : null;
+        this.offset = this.bytes.hasArray() ? this.bytes.arrayOffset() : 0;
+    }
+
+    //Maps the file into memory. The file has to stay unchanged while its tokens are in use.
+    public static Utf8TextManager map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Utf8TextManager(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public boolean isAtEnd() {
+        return position == limit;
+    }
+
+    @Override
+    public char peekCharacter() {
+        if (position < limit) {
+            byte b = byteAt(position);
+            if (b >= 0)
+                return (char) b;
+        }
+        return (char) decode(position);
+    }
+
+    @Override
+    public char peekCharacter(int dist) {
+        int index = position;
+        for (int i = 0; i < dist; i++)
+            index += decode(index) >>> 16;
+        return (char) decode(index);
+    }
+
+    @Override
+    public char getCharacter() {
+        if (position < limit) {
+            byte b = byteAt(position);
+            if (b >= 0) {
+                position++;
+                return (char) b;
+            }
+        }
+        int decoded = decode(position);
+        position += decoded >>> 16;
+        return (char) decoded;
+    }
+
+    //Looks at eight bytes at a time (SWAR, SIMD within a register). While they are all ASCII each byte is one
+    //character, so finding the stop character is finding a zero byte in the long xor the stop character in every byte.
+    //Anything else is decoded a character at a time.
+    @Override
+    public int skipUntil(char stop) {
+        long pattern = ONES * stop;
+        int characters = 0;
+        while (position < limit) {
+            while (position + Long.BYTES <= limit) {
+                long word = longAt(position);
+                if ((word & HIGH_BITS) != 0)
+                    break;
+                long difference = word ^ pattern;
+                long zeros = (difference - ONES) & ~difference & HIGH_BITS; //The lowest flagged byte is the first match
+                if (zeros != 0) {
+                    int offset = Long.numberOfTrailingZeros(zeros) >>> 3;
+                    position += offset;
+                    return characters + offset;
+                }
+                position += Long.BYTES;
+                characters += Long.BYTES;
+            }
+            if (position == limit)
+                break;
+            int decoded = decode(position);
+            if ((char) decoded == stop)
+                break;
+            position += decoded >>> 16;
+            characters++;
+        }
+        return characters;
+    }
+
+    //Any byte that isn't c ends the run, so the first nonzero byte of the long xor c in every byte is where it stops
+    @Override
+    public int skipWhile(char c) {
+        int start = position;
+        if (c >= 0x80) {
+            int characters = 0;
+            for (int decoded; position < limit && (char) (decoded = decode(position)) == c; characters++)
+                position += decoded >>> 16;
+            return characters;
+        }
+        long pattern = ONES * c;
+        while (position + Long.BYTES <= limit) {
+            long difference = longAt(position) ^ pattern;
+            if (difference != 0) {
+                position += Long.numberOfTrailingZeros(difference) >>> 3;
+                return position - start;
+            }
+            position += Long.BYTES;
+        }
+        while (position < limit && byteAt(position) == c)
+            position++;
+        return position - start;
+    }
+
+    @Override
+    public String slice(int start, int end) {
+        if (array != null)
+            return new String(array, offset + start, end - start, StandardCharsets.UTF_8);
+        byte[] copy = new byte[end - start];
+        bytes.get(start, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean matches(int start, String word) {
+        return matchLength(start, word) >= 0;
+    }
+
+    @Override
+    public boolean matches(int start, int end, String word) {
+        return matchLength(start, word) == end - start;
+    }
+
+    //How many bytes from start spell out word, or -1 if they don't
+    private int matchLength(int start, String word) {
+        int index = start;
+        for (int i = 0; i < word.length(); i++) {
+            if (index >= limit)
+                return -1;
+            int decoded = decode(index);
+            if ((char) decoded != word.charAt(i))
+                return -1;
+            index += decoded >>> 16;
+        }
+        return index - start;
+    }
+
+    //The character at index and how many bytes it takes, packed as width << 16 | character. Throws the way
+    //String.charAt() does past the end, which the lexer counts on.
+    private int decode(int index) {
+        if (index >= limit)
+            throw new StringIndexOutOfBoundsException("Index " + index + " out of bounds for length " + limit);
+        int b = byteAt(index) & 0xFF;
+        if (b < 0x80)
+            return 1 << 16 | b;
+        if (b >= 0xC2 && b < 0xE0 && continues(index, 1))
+            return 2 << 16 | (b & 0x1F) << 6 | continuation(index + 1);
+        if (b >= 0xE0 && b < 0xF0 && continues(index, 2)) {
+            int c = (b & 0x0F) << 12 | continuation(index + 1) << 6 | continuation(index + 2);
+            if (c >= 0x800 && !Character.isSurrogate((char) c))
+                return 3 << 16 | c;
+        }
+        int codePoint = fourByteCodePoint(index);
+        if (codePoint >= 0)
+            return 2 << 16 | Character.highSurrogate(codePoint);
+        //The second half of a four byte character starts two bytes in
+        codePoint = index >= 2 ? fourByteCodePoint(index - 2) : -1;
+        if (codePoint >= 0)
+            return 2 << 16 | Character.lowSurrogate(codePoint);
+        return invalidLength(index) << 16 | 0xFFFD;
+    }
+
+    //How many bytes one U+FFFD stands for. Like the JDK's decoder, the start of a character that is cut short is
+    //replaced as a whole, and any other bad byte on its own.
+    private int invalidLength(int index) {
+        int b = byteAt(index) & 0xFF;
+        int needed = b >= 0xC2 && b < 0xE0 ? 1 : b >= 0xE0 && b < 0xF0 ? 2 : b >= 0xF0 && b < 0xF5 ? 3 : 0;
+        int length = 1;
+        while (length <= needed && index + length < limit) {
+            int next = byteAt(index + length) & 0xFF;
+            //The second byte is narrower after some leads, to keep out overlong forms and code points past U+10FFFF
+            int low = length > 1 ? 0x80 : b == 0xE0 ? 0xA0 : b == 0xF0 ? 0x90 : 0x80;
+            int high = length > 1 ? 0xBF : b == 0xF4 ? 0x8F : 0xBF;
+            if (next < low || next > high)
+                break;
+            length++;
+        }
+        return length;
+    }
+
+    //The code point of a four byte character starting at index, or -1 if there isn't one
+    private int fourByteCodePoint(int index) {
+        int b = byteAt(index) & 0xFF;
+        if (b < 0xF0 || b >= 0xF5 || !continues(index, 3))
+            return -1;
+        int codePoint = (b & 0x07) << 18 | continuation(index + 1) << 12 | continuation(index + 2) << 6 | continuation(index + 3);
+        return codePoint >= 0x10000 && codePoint <= Character.MAX_CODE_POINT ? codePoint : -1;
+    }
+
+    //Whether the count bytes after index are all continuation bytes
+    private boolean continues(int index, int count) {
+        if (index + count >= limit)
+            return false;
+        for (int i = 1; i <= count; i++) {
+            if ((byteAt(index + i) & 0xC0) != 0x80)
+                return false;
+        }
+        return true;
+    }
+
+    private long longAt(int index) {
+        return array != null ? (long) LONGS.get(array, offset + index) : bytes.getLong(index);
+    }
+
+    private byte byteAt(int index) {
+        return array != null ? array[offset + index] : bytes.get(index);
+    }
+
+    private int continuation(int index) {
+        return byteAt(index) & 0x3F;
+    }
+}